@@ -0,0 +1,91 @@
+package com.sudhirt.api.rest.benchmark;
+
+import com.sudhirt.api.rest.entity.Address;
+import com.sudhirt.api.rest.repository.AddressRepository;
+import com.sudhirt.api.rest.repository.AddressVersion;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Address lookups by customer as the address table grows, with and without the indexes of the
+ * {@code V2__index_address_and_customer_lookups} migration. Every customer has {@link #ADDRESSES_PER_CUSTOMER}
+ * addresses; each invocation reads those of a random customer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class AddressLookupBenchmark {
+
+    private static final int ADDRESSES_PER_CUSTOMER = 2;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int customers;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private AddressRepository addressRepository;
+
+    @Setup
+    public void setup(ApplicationState application) {
+        addressRepository = application.getBean(AddressRepository.class);
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            jdbcTemplate.execute("drop index idx_address_customer_versions");
+            jdbcTemplate.execute("drop index idx_customer_versions");
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> customerRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> addressRows = new ArrayList<>(BATCH_SIZE * ADDRESSES_PER_CUSTOMER);
+        for (int customer = 0; customer < customers; customer++) {
+            String customerId = customerId(customer);
+            customerRows.add(new Object[]{customerId, now, now, "Mr.", "FIRST_NAME" + customer, "LAST_NAME", now});
+            for (int address = 0; address < ADDRESSES_PER_CUSTOMER; address++) {
+                addressRows.add(new Object[]{customerId + "-" + address, now, now, "RESIDENCE", "H.No. 123", "Hyderabad", "India", "500072", customerId});
+            }
+            if (customerRows.size() == BATCH_SIZE || customer == customers - 1) {
+                jdbcTemplate.batchUpdate("insert into customer (id, created_date, modified_date, revision, salutation, first_name, last_name, date_of_birth)"
+                        + " values (?, ?, ?, 1, ?, ?, ?, ?)", customerRows);
+                jdbcTemplate.batchUpdate("insert into address (id, created_date, modified_date, revision, address_type, address1, city, country, zipcode, customer_id)"
+                        + " values (?, ?, ?, 1, ?, ?, ?, ?, ?, ?)", addressRows);
+                customerRows.clear();
+                addressRows.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Address> findByCustomerId() {
+        return addressRepository.findByCustomerId(randomCustomerId());
+    }
+
+    @Benchmark
+    public Optional<Address> getByIdAndCustomerId() {
+        String customerId = randomCustomerId();
+        return addressRepository.getByIdAndCustomerId(customerId + "-1", customerId);
+    }
+
+    @Benchmark
+    public List<AddressVersion> findVersionsByCustomerId() {
+        return addressRepository.findVersionsByCustomerId(randomCustomerId());
+    }
+
+    private String randomCustomerId() {
+        return customerId(ThreadLocalRandom.current().nextInt(customers));
+    }
+
+    private static String customerId(int customer) {
+        return String.format("C%07d", customer);
+    }
+}
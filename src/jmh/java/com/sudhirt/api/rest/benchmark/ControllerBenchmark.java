@@ -0,0 +1,49 @@
+package com.sudhirt.api.rest.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Full request cycle through the dispatcher servlet: mapping, service, repository and serialization.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerBenchmark {
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setup(ApplicationState application) {
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.getContext()).build();
+    }
+
+    @Benchmark
+    public byte[] getCustomers() throws Exception {
+        return mockMvc.perform(get("/customers")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getCustomerById() throws Exception {
+        return mockMvc.perform(get("/customers/1")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getCustomerAddresses() throws Exception {
+        return mockMvc.perform(get("/customers/1/addresses")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getCustomerAddressById() throws Exception {
+        return mockMvc.perform(get("/customers/1/addresses/1")).andReturn().getResponse().getContentAsByteArray();
+    }
+}
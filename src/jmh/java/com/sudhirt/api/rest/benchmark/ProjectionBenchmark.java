@@ -0,0 +1,69 @@
+package com.sudhirt.api.rest.benchmark;
+
+import com.sudhirt.api.rest.dto.AddressView;
+import com.sudhirt.api.rest.dto.CustomerView;
+import com.sudhirt.api.rest.entity.Address;
+import com.sudhirt.api.rest.entity.Customer;
+import com.sudhirt.api.rest.repository.AddressRepository;
+import com.sudhirt.api.rest.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reads behind the GET endpoints, loading entities into a read-only transaction against building views straight
+ * from the result set. Run with {@code -prof gc} to compare the bytes allocated per read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private CustomerRepository customerRepository;
+    private AddressRepository addressRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setup(ApplicationState application) {
+        customerRepository = application.getBean(CustomerRepository.class);
+        addressRepository = application.getBean(AddressRepository.class);
+        entityManager = application.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(application.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Benchmark
+    public List<Address> addressesAsEntities() {
+        return addressRepository.findByCustomerId("1");
+    }
+
+    @Benchmark
+    public List<AddressView> addressesAsViews() {
+        return addressRepository.findViewsByCustomerId("1");
+    }
+
+    @Benchmark
+    public List<Customer> customerPageAsEntities() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("select c from Customer c where c.id > :afterId order by c.id", Customer.class)
+                .setParameter("afterId", "")
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultList());
+    }
+
+    @Benchmark
+    public Slice<CustomerView> customerPageAsViews() {
+        return customerRepository.findFirstViews(PageRequest.of(0, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,121 @@
+package com.sudhirt.api.rest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sudhirt.api.rest.constant.AddressType;
+import com.sudhirt.api.rest.dto.AddressView;
+import com.sudhirt.api.rest.dto.CustomerView;
+import com.sudhirt.api.rest.entity.Address;
+import com.sudhirt.api.rest.entity.Customer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization with the application's ObjectMapper: of the entities through the reflective bean
+ * serializer, and of the views the read routes answer with through their own serializers. Both write the same JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader customerReader;
+    private Customer customer;
+    private Address address;
+    private List<Customer> customers;
+    private CustomerView customerView;
+    private AddressView addressView;
+    private List<CustomerView> customerViews;
+    private byte[] customerJson;
+
+    @Setup
+    public void setup(ApplicationState application) throws IOException {
+        ObjectMapper objectMapper = application.getBean(ObjectMapper.class);
+        writer = objectMapper.writer();
+        customerReader = objectMapper.readerFor(Customer.class);
+        customer = customer(1);
+        address = Address.builder()
+                .id("1")
+                .addressType(AddressType.RESIDENCE)
+                .address1("H.No. 123")
+                .address2("Kukatpally")
+                .city("Hyderabad")
+                .state("Telangana")
+                .country("India")
+                .zipcode("500072")
+                .build();
+        customers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            customers.add(customer(i));
+        }
+        customerJson = writer.writeValueAsBytes(customer);
+        customerView = CustomerView.of(customer);
+        addressView = new AddressView(address.getId(), address.getAddressType(), address.getAddress1(), address.getAddress2(), address.getCity(),
+                address.getState(), address.getCountry(), address.getZipcode(), "1", address.getRevision(), address.getCreatedDate(),
+                address.getModifiedDate());
+        customerViews = new ArrayList<>();
+        for (Customer each : customers) {
+            customerViews.add(CustomerView.of(each));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws IOException {
+        return writer.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeAddress() throws IOException {
+        return writer.writeValueAsBytes(address);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomerPage() throws IOException {
+        return writer.writeValueAsBytes(customers);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomerView() throws IOException {
+        return writer.writeValueAsBytes(customerView);
+    }
+
+    @Benchmark
+    public byte[] serializeAddressView() throws IOException {
+        return writer.writeValueAsBytes(addressView);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomerViewPage() throws IOException {
+        return writer.writeValueAsBytes(customerViews);
+    }
+
+    @Benchmark
+    public Customer deserializeCustomer() throws IOException {
+        return customerReader.readValue(customerJson);
+    }
+
+    private static Customer customer(int i) {
+        Customer customer = Customer.builder()
+                .id(String.valueOf(i))
+                .salutation("Mr.")
+                .firstName("FIRST_NAME" + i)
+                .lastName("LAST_NAME" + i)
+                .dateOfBirth(LocalDate.now())
+                .build();
+        customer.setRevision(1L);
+        customer.setCreatedDate(new Date());
+        customer.setModifiedDate(new Date());
+        return customer;
+    }
+}
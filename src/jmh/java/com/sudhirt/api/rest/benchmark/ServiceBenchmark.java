@@ -0,0 +1,41 @@
+package com.sudhirt.api.rest.benchmark;
+
+import com.sudhirt.api.rest.dto.AddressView;
+import com.sudhirt.api.rest.entity.Customer;
+import com.sudhirt.api.rest.service.AddressService;
+import com.sudhirt.api.rest.service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service calls against the embedded HSQLDB, without the web layer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private CustomerService customerService;
+    private AddressService addressService;
+
+    @Setup
+    public void setup(ApplicationState application) {
+        customerService = application.getBean(CustomerService.class);
+        addressService = application.getBean(AddressService.class);
+    }
+
+    @Benchmark
+    public Customer getCustomerById() {
+        return customerService.getById("1");
+    }
+
+    @Benchmark
+    public List<AddressView> getAddressesByCustomerId() {
+        return addressService.getByCustomerId("1");
+    }
+}
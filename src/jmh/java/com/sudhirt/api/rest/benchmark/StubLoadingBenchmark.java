@@ -0,0 +1,76 @@
+package com.sudhirt.api.rest.benchmark;
+
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.standalone.JsonFileMappingsSource;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.sudhirt.api.rest.controller.utils.IndexedStubMappings;
+import com.sudhirt.api.rest.controller.utils.StubSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+/**
+ * Start-up cost of a recorded customer data set: WireMock reading its mappings directory, the indexed stubs reading
+ * the same directory, and opening a {@link StubSnapshot} of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StubLoadingBenchmark {
+
+    @Param({"10000"})
+    private int stubs;
+
+    private Path root;
+    private Path snapshot;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("stubs");
+        Path mappings = Files.createDirectories(root.resolve("mappings"));
+        Files.createDirectories(root.resolve("__files"));
+        for (int i = 0; i < stubs; i++) {
+            String body = "{\"id\":\"" + i + "\",\"salutation\":\"Mr.\",\"firstName\":\"FIRST_NAME" + i
+                    + "\",\"lastName\":\"LAST_NAME" + i + "\",\"dateOfBirth\":\"01/01/1980\",\"revision\":1}";
+            StubMapping stub = get(urlEqualTo("/customers/" + i)).willReturn(okJson(body)).build();
+            Files.write(mappings.resolve("customers_" + i + ".json"), StubMapping.buildJsonStringFor(stub).getBytes(StandardCharsets.UTF_8));
+        }
+        snapshot = root.resolve("stubs.snapshot");
+        StubSnapshot.write(root, snapshot);
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public InMemoryStubMappings loadWireMockMappings() {
+        InMemoryStubMappings mappings = new InMemoryStubMappings();
+        new JsonFileMappingsSource(new SingleRootFileSource(root.resolve("mappings").toFile())).loadMappingsInto(mappings);
+        return mappings;
+    }
+
+    @Benchmark
+    public IndexedStubMappings loadIndexedMappings() throws IOException {
+        return IndexedStubMappings.load(root.resolve("mappings"));
+    }
+
+    @Benchmark
+    public IndexedStubMappings openSnapshot() throws IOException {
+        return StubSnapshot.open(snapshot);
+    }
+}
@@ -0,0 +1,92 @@
+package com.sudhirt.api.rest.benchmark;
+
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.sudhirt.api.rest.controller.utils.IndexedStubMappings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Stub matching of a recorded customer/address data set, WireMock's linear scan against {@link IndexedStubMappings}.
+ * Every customer is recorded as {@code /customers/{id}}, its address list and two addresses; a path template stub for
+ * address updates is added on top.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StubMatchingBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    private int stubs;
+
+    private InMemoryStubMappings linear;
+    private IndexedStubMappings indexed;
+    private LoggedRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setup() {
+        linear = new InMemoryStubMappings();
+        indexed = new IndexedStubMappings();
+        List<String> urls = new ArrayList<>();
+        for (int customer = 0; urls.size() < stubs - 1; customer++) {
+            urls.add("/customers/" + customer);
+            urls.add("/customers/" + customer + "/addresses");
+            urls.add("/customers/" + customer + "/addresses/" + (2 * customer));
+            urls.add("/customers/" + customer + "/addresses/" + (2 * customer + 1));
+        }
+        urls.subList(stubs - 1, urls.size()).clear();
+        for (String url : urls) {
+            add(get(urlEqualTo(url)).willReturn(okJson("{}")).build());
+        }
+        add(put(urlPathMatching("/customers/[^/]+/addresses/[^/]+")).willReturn(noContent()).build());
+
+        Random random = new Random(42);
+        requests = new LoggedRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            String url = urls.get(random.nextInt(urls.size()));
+            requests[i] = request(i % 8 == 0 && url.contains("/addresses/") ? RequestMethod.PUT : RequestMethod.GET, url);
+        }
+    }
+
+    @Benchmark
+    public ServeEvent linearMatch() {
+        return linear.serveFor(nextRequest());
+    }
+
+    @Benchmark
+    public StubMapping indexedMatch() {
+        return indexed.find(nextRequest());
+    }
+
+    private void add(StubMapping stub) {
+        linear.addMapping(stub);
+        indexed.add(stub);
+    }
+
+    private LoggedRequest nextRequest() {
+        return requests[next++ & (REQUESTS - 1)];
+    }
+
+    private static LoggedRequest request(RequestMethod method, String url) {
+        return new LoggedRequest(url, "http://localhost" + url, method, "127.0.0.1", new HttpHeaders(),
+                Collections.emptyMap(), false, new Date(), new byte[0], Collections.emptyList());
+    }
+}
@@ -0,0 +1,176 @@
+package com.sudhirt.api.rest.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sudhirt.api.rest.dto.AddressView;
+import com.sudhirt.api.rest.dto.CustomerDetails;
+import com.sudhirt.api.rest.dto.CustomerView;
+import com.sudhirt.api.rest.entity.Customer;
+import com.sudhirt.api.rest.repository.AddressVersion;
+import com.sudhirt.api.rest.repository.EntityVersion;
+import com.sudhirt.api.rest.service.AddressService;
+import com.sudhirt.api.rest.service.CustomerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.sudhirt.api.rest.controller.CustomerController.APPLICATION_NDJSON_VALUE;
+import static com.sudhirt.api.rest.controller.CustomerController.pageResponse;
+import static com.sudhirt.api.rest.controller.CustomerController.pageOf;
+
+/**
+ * Non-blocking variant of the read routes of {@link CustomerController}, answering the same routes with the same
+ * payloads in their place when {@code customers.execution.mode=async}.
+ * <p>
+ * Handlers return right away and the JPA calls run on the {@link #DATABASE_EXECUTOR}, sized to the database
+ * concurrency, so neither a request waiting for the database nor a slow client holds a container thread. The NDJSON
+ * stream is read page by page and a page is only read once the client has taken the previous one.
+ * <p>
+ * Not a {@code @RestController}: its routes are registered in a handler mapping of their own, ahead of the
+ * synchronous ones.
+ */
+@ResponseBody
+public class AsyncCustomerController {
+
+    public static final String DATABASE_EXECUTOR = "databaseExecutor";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private EntityIds entityIds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier(DATABASE_EXECUTOR)
+    private Executor databaseExecutor;
+
+    @Value("${customers.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${customers.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${customers.execution.stream-page-size:500}")
+    private int streamPageSize;
+
+    @Value("${customers.execution.stream-timeout-ms:300000}")
+    private long streamTimeoutMillis;
+
+    @GetMapping("/customers")
+    public CompletableFuture<ResponseEntity<Collection<CustomerView>>> getAllCustomers(@RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(required = false) Integer limit) {
+        String afterId = entityIds.afterId(cursor);
+        Pageable page = pageOf(cursor, limit, defaultPageSize, maxPageSize);
+        return CompletableFuture.supplyAsync(() -> pageResponse(customerService.getPage(afterId, page), CustomerView::getId), databaseExecutor);
+    }
+
+    @GetMapping(value = "/customers", params = "expand=addresses")
+    public CompletableFuture<ResponseEntity<Collection<CustomerDetails>>> getAllCustomersWithAddresses(@RequestParam(required = false) String cursor,
+                                                                                                       @RequestParam(required = false) Integer limit) {
+        String afterId = entityIds.afterId(cursor);
+        Pageable page = pageOf(cursor, limit, defaultPageSize, maxPageSize);
+        return CompletableFuture.supplyAsync(() -> pageResponse(customerService.getPageWithAddresses(afterId, page),
+                details -> details.getCustomer().getId()), databaseExecutor);
+    }
+
+    @GetMapping(value = "/customers", produces = APPLICATION_NDJSON_VALUE)
+    public void streamAllCustomers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(streamTimeoutMillis);
+        new CustomerPageStream(asyncContext, objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE),
+                afterId -> customerService.getPage(afterId, PageRequest.of(0, streamPageSize)), databaseExecutor).start();
+    }
+
+    @GetMapping("/customers/{id}")
+    public CompletableFuture<ResponseEntity<CustomerView>> getCustomerById(@PathVariable String id, HttpServletRequest request) {
+        entityIds.check(id);
+        // without the response, only evaluates the validators against the request headers
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        boolean conditional = ConditionalRequests.isConditional(webRequest);
+        return CompletableFuture.supplyAsync(() -> {
+            if (conditional) {
+                EntityVersion version = customerService.getVersion(id);
+                String etag = ConditionalRequests.etagOf(version.getRevision());
+                if (ConditionalRequests.checkNotModified(webRequest, etag, version.getModifiedDate())) {
+                    return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, version.getModifiedDate()).build();
+                }
+            }
+            Customer customer = customerService.getById(id);
+            return validated(ResponseEntity.ok(), ConditionalRequests.etagOf(customer.getRevision()), customer.getModifiedDate()).body(CustomerView.of(customer));
+        }, databaseExecutor);
+    }
+
+    @GetMapping("/customers/{customerId}/addresses")
+    public CompletableFuture<ResponseEntity<Collection<AddressView>>> getCustomerAddresses(@PathVariable String customerId, HttpServletRequest request) {
+        entityIds.check(customerId);
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        boolean conditional = ConditionalRequests.isConditional(webRequest);
+        return CompletableFuture.supplyAsync(() -> {
+            if (conditional) {
+                List<AddressVersion> versions = addressService.getVersionsByCustomerId(customerId);
+                String etag = ConditionalRequests.etagOf(versions, AddressVersion::getId, AddressVersion::getRevision);
+                Date lastModified = ConditionalRequests.lastModifiedOf(versions, AddressVersion::getModifiedDate);
+                if (ConditionalRequests.checkNotModified(webRequest, etag, lastModified)) {
+                    return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified).build();
+                }
+            }
+            List<AddressView> addresses = addressService.getByCustomerId(customerId);
+            return validated(ResponseEntity.ok(),
+                    ConditionalRequests.etagOf(addresses, AddressView::getId, AddressView::getRevision),
+                    ConditionalRequests.lastModifiedOf(addresses, AddressView::getModifiedDate)).body(addresses);
+        }, databaseExecutor);
+    }
+
+    @GetMapping("/customers/{customerId}/addresses/{addressId}")
+    public CompletableFuture<ResponseEntity<AddressView>> getCustomerAddressById(@PathVariable String customerId, @PathVariable String addressId,
+                                                                             HttpServletRequest request) {
+        entityIds.check(customerId, addressId);
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        boolean conditional = ConditionalRequests.isConditional(webRequest);
+        return CompletableFuture.supplyAsync(() -> {
+            if (conditional) {
+                EntityVersion version = addressService.getVersionByIdAndCustomerId(addressId, customerId);
+                String etag = ConditionalRequests.etagOf(version.getRevision());
+                if (ConditionalRequests.checkNotModified(webRequest, etag, version.getModifiedDate())) {
+                    return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, version.getModifiedDate()).build();
+                }
+            }
+            AddressView address = addressService.getByIdAndCustomerId(addressId, customerId);
+            return validated(ResponseEntity.ok(), ConditionalRequests.etagOf(address.getRevision()), address.getModifiedDate()).body(address);
+        }, databaseExecutor);
+    }
+
+    private static ResponseEntity.BodyBuilder validated(ResponseEntity.BodyBuilder response, String etag, Date lastModified) {
+        response.eTag(etag);
+        if (lastModified != null) {
+            response.lastModified(lastModified.getTime());
+        }
+        return response;
+    }
+}
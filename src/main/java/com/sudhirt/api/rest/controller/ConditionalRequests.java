@@ -0,0 +1,73 @@
+package com.sudhirt.api.rest.controller;
+
+import com.sudhirt.api.rest.exception.PreconditionFailedException;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Derives ETag and Last-Modified validators from the entity revision and modification date.
+ */
+@UtilityClass
+class ConditionalRequests {
+
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Sets the validators on the response and answers whether the client copy is still current,
+     * in which case the response status has been set to 304.
+     */
+    static boolean checkNotModified(WebRequest request, String etag, Date lastModified) {
+        return request.checkNotModified(etag, lastModified == null ? -1 : lastModified.getTime());
+    }
+
+    /**
+     * Reads the revision a client expects from its {@code If-Match} header.
+     *
+     * @return {@code null} when the header is absent or {@code *}
+     * @throws PreconditionFailedException if the header is not a revision ETag, as it can then never match
+     */
+    static Long expectedRevisionOf(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() < 2 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new PreconditionFailedException();
+        }
+        try {
+            return Long.valueOf(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException();
+        }
+    }
+
+    static String etagOf(Long revision) {
+        return "\"" + revision + "\"";
+    }
+
+    /**
+     * Combines the ids and revisions of a collection into a single ETag, independent of the collection order.
+     */
+    static <T> String etagOf(Collection<T> items, Function<T, String> idOf, Function<T, Long> revisionOf) {
+        StringBuilder versions = new StringBuilder();
+        items.stream()
+                .sorted(Comparator.comparing(idOf))
+                .forEach(item -> versions.append(idOf.apply(item)).append(':').append(revisionOf.apply(item)).append(';'));
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static <T> Date lastModifiedOf(Collection<T> items, Function<T, Date> modifiedDateOf) {
+        return items.stream().map(modifiedDateOf).filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.sudhirt.api.rest.controller;
+
+import com.sudhirt.api.rest.exception.DataValidationException;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the last id of a page into the opaque continuation token handed out to clients.
+ */
+@UtilityClass
+class Cursors {
+
+    static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new DataValidationException("Invalid cursor is provided.");
+        }
+    }
+}
@@ -1,38 +1,114 @@
 package com.sudhirt.api.rest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sudhirt.api.rest.dto.BulkItemResult;
+import com.sudhirt.api.rest.dto.AddressView;
+import com.sudhirt.api.rest.dto.CustomerDetails;
+import com.sudhirt.api.rest.dto.CustomerView;
 import com.sudhirt.api.rest.entity.Address;
 import com.sudhirt.api.rest.entity.Customer;
 import com.sudhirt.api.rest.exception.DataValidationException;
+import com.sudhirt.api.rest.repository.AddressVersion;
+import com.sudhirt.api.rest.repository.EntityVersion;
 import com.sudhirt.api.rest.service.AddressService;
 import com.sudhirt.api.rest.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.ValidationException;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @Validated
 public class CustomerController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     private CustomerService customerService;
 
     @Autowired
     private AddressService addressService;
 
+    @Autowired
+    private EntityIds entityIds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${customers.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${customers.page.max-size:1000}")
+    private int maxPageSize;
+
     @GetMapping("/customers")
-    public Collection<Customer> getAllCustomers() {
-        return customerService.getAll();
+    public ResponseEntity<Collection<CustomerView>> getAllCustomers(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit) {
+        Slice<CustomerView> page = customerService.getPage(entityIds.afterId(cursor), pageOf(cursor, limit, defaultPageSize, maxPageSize));
+        return pageResponse(page, CustomerView::getId);
+    }
+
+    @GetMapping(value = "/customers", params = "expand=addresses")
+    public ResponseEntity<Collection<CustomerDetails>> getAllCustomersWithAddresses(@RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(required = false) Integer limit) {
+        Slice<CustomerDetails> page = customerService.getPageWithAddresses(entityIds.afterId(cursor), pageOf(cursor, limit, defaultPageSize, maxPageSize));
+        return pageResponse(page, details -> details.getCustomer().getId());
+    }
+
+    @GetMapping(value = "/customers", produces = APPLICATION_NDJSON_VALUE)
+    public void streamAllCustomers(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            customerService.streamAll(customer -> {
+                try {
+                    writer.writeValue(generator, customer);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @GetMapping("/customers/{id}")
-    public Customer getCustomerById(@PathVariable String id) {
-        return customerService.getById(id);
+    public CustomerView getCustomerById(@PathVariable String id, WebRequest request) {
+        entityIds.check(id);
+        if (ConditionalRequests.isConditional(request)) {
+            EntityVersion version = customerService.getVersion(id);
+            if (ConditionalRequests.checkNotModified(request, ConditionalRequests.etagOf(version.getRevision()), version.getModifiedDate())) {
+                return null;
+            }
+            return CustomerView.of(customerService.getById(id));
+        }
+        Customer customer = customerService.getById(id);
+        ConditionalRequests.checkNotModified(request, ConditionalRequests.etagOf(customer.getRevision()), customer.getModifiedDate());
+        return CustomerView.of(customer);
     }
 
     @PostMapping("/customers")
@@ -41,8 +117,36 @@ public class CustomerController {
         return customerService.save(customer);
     }
 
+    @PostMapping(value = "/customers/_bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public List<BulkItemResult> createCustomers(HttpServletRequest request) throws IOException {
+        try (MappingIterator<Customer> customers = objectMapper.readerFor(Customer.class).readValues(request.getInputStream())) {
+            return customerService.saveAll(customers);
+        } catch (JsonProcessingException e) {
+            throw new DataValidationException(e.getOriginalMessage());
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof JsonProcessingException) {
+                throw new DataValidationException(((JsonProcessingException) e.getCause()).getOriginalMessage());
+            }
+            throw e;
+        }
+    }
+
+    @PutMapping(value = "/customers/{id}", headers = HttpHeaders.IF_MATCH)
+    public ResponseEntity<Customer> updateCustomerIfMatch(@PathVariable String id, @RequestBody @NotNull Customer customer,
+                                                          @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch) {
+        entityIds.check(id);
+        if(customer.isEmpty()) {
+            throw new DataValidationException("Empty request body is provided.");
+        }
+        customerService.update(id, ConditionalRequests.expectedRevisionOf(ifMatch), customer);
+        // answered like a PUT without If-Match, with the updated customer
+        Customer updated = customerService.getById(id);
+        return ResponseEntity.ok().eTag(ConditionalRequests.etagOf(updated.getRevision())).body(updated);
+    }
+
     @PutMapping("/customers/{id}")
     public Customer updateCustomer(@PathVariable String id, @RequestBody @NotNull Customer customer) {
+        entityIds.check(id);
         if(customer.isEmpty()) {
             throw new DataValidationException("Empty request body is provided.");
         }
@@ -65,56 +169,98 @@ public class CustomerController {
     @DeleteMapping("/customers/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void createCustomer(@PathVariable String id) {
+        entityIds.check(id);
         customerService.delete(id);
     }
 
     @GetMapping("/customers/{customerId}/addresses")
-    public Collection<Address> getCustomerAddresses(@PathVariable String customerId) {
-        return addressService.getByCustomerId(customerId);
+    public Collection<AddressView> getCustomerAddresses(@PathVariable String customerId, WebRequest request) {
+        entityIds.check(customerId);
+        if (ConditionalRequests.isConditional(request)) {
+            List<AddressVersion> versions = addressService.getVersionsByCustomerId(customerId);
+            if (ConditionalRequests.checkNotModified(request,
+                    ConditionalRequests.etagOf(versions, AddressVersion::getId, AddressVersion::getRevision),
+                    ConditionalRequests.lastModifiedOf(versions, AddressVersion::getModifiedDate))) {
+                return null;
+            }
+            return addressService.getByCustomerId(customerId);
+        }
+        List<AddressView> addresses = addressService.getByCustomerId(customerId);
+        ConditionalRequests.checkNotModified(request,
+                ConditionalRequests.etagOf(addresses, AddressView::getId, AddressView::getRevision),
+                ConditionalRequests.lastModifiedOf(addresses, AddressView::getModifiedDate));
+        return addresses;
     }
 
     @GetMapping("/customers/{customerId}/addresses/{addressId}")
-    public Address getCustomerAddressById(@PathVariable String customerId, @PathVariable String addressId) {
-        return addressService.getByIdAndCustomerId(addressId, customerId);
+    public AddressView getCustomerAddressById(@PathVariable String customerId, @PathVariable String addressId, WebRequest request) {
+        entityIds.check(customerId, addressId);
+        if (ConditionalRequests.isConditional(request)) {
+            EntityVersion version = addressService.getVersionByIdAndCustomerId(addressId, customerId);
+            if (ConditionalRequests.checkNotModified(request, ConditionalRequests.etagOf(version.getRevision()), version.getModifiedDate())) {
+                return null;
+            }
+            return addressService.getByIdAndCustomerId(addressId, customerId);
+        }
+        AddressView address = addressService.getByIdAndCustomerId(addressId, customerId);
+        ConditionalRequests.checkNotModified(request, ConditionalRequests.etagOf(address.getRevision()), address.getModifiedDate());
+        return address;
     }
 
     @PostMapping("/customers/{customerId}/addresses")
     @ResponseStatus(HttpStatus.CREATED)
     public Address createAddress(@PathVariable String customerId, @RequestBody @Valid Address address) {
+        entityIds.check(customerId);
         return addressService.save(customerId, address);
     }
 
+    @PostMapping("/customers/{customerId}/addresses/_bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<String> createAddresses(@PathVariable String customerId, @RequestBody @NotNull List<Address> addresses) {
+        entityIds.check(customerId);
+        return addressService.saveAll(customerId, addresses);
+    }
+
     @PutMapping("/customers/{customerId}/addresses/{addressId}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void updateAddress(@PathVariable String customerId, @PathVariable String addressId, @RequestBody @NotNull Address address) {
-        Address dbAddress = addressService.getByIdAndCustomerId(customerId, addressId);
-        if(address.getAddress1() != null) {
-            dbAddress.setAddress1(address.getAddress1());
-        }
-        if(address.getAddress2() != null) {
-            dbAddress.setAddress2(address.getAddress2());
-        }
-        if(address.getAddressType() != null) {
-            dbAddress.setAddressType(address.getAddressType());
-        }
-        if(address.getCity() != null) {
-            dbAddress.setCity(address.getCity());
+    public ResponseEntity<Void> updateAddress(@PathVariable String customerId, @PathVariable String addressId, @RequestBody @NotNull Address address,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        entityIds.check(customerId, addressId);
+        Long revision = addressService.update(addressId, customerId, ConditionalRequests.expectedRevisionOf(ifMatch), address);
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (revision != null) {
+            response.eTag(ConditionalRequests.etagOf(revision));
         }
-        if(address.getState() != null) {
-            dbAddress.setState(address.getState());
-        }
-        if(address.getCountry() != null) {
-            dbAddress.setCountry(address.getCountry());
-        }
-        if(address.getZipcode() != null) {
-            dbAddress.setZipcode(address.getZipcode());
-        }
-        addressService.save(customerId, dbAddress);
+        return response.build();
     }
 
     @DeleteMapping("/customers/{customerId}/addresses/{addressId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteAddress(@PathVariable String customerId, @PathVariable String addressId) {
+        entityIds.check(customerId, addressId);
         addressService.deleteByIdAndCustomerId(addressId, customerId);
     }
+
+    /**
+     * A request with neither a cursor nor a limit gets the whole list, as it did before paging; the default page size
+     * applies once a client pages with a cursor.
+     */
+    static Pageable pageOf(String cursor, Integer limit, int defaultPageSize, int maxPageSize) {
+        if (cursor == null && limit == null) {
+            return Pageable.unpaged();
+        }
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1) {
+            throw new DataValidationException("Limit must be a positive number.");
+        }
+        return PageRequest.of(0, Math.min(pageSize, maxPageSize));
+    }
+
+    static <T> ResponseEntity<Collection<T>> pageResponse(Slice<T> page, Function<T, String> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            T last = page.getContent().get(page.getNumberOfElements() - 1);
+            response.header(NEXT_CURSOR_HEADER, Cursors.encode(idOf.apply(last)));
+        }
+        return response.body(page.getContent());
+    }
 }
@@ -0,0 +1,131 @@
+package com.sudhirt.api.rest.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sudhirt.api.rest.dto.CustomerView;
+import org.springframework.data.domain.Slice;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Writes all customers as NDJSON with non-blocking servlet output, reading them one keyset page at a time.
+ * <p>
+ * The next page is only read once the output has taken the previous one, so a slow client holds at most one page in
+ * memory and no thread. Writing happens either on the container thread calling {@link #onWritePossible()} or on the
+ * executor thread that just read a page, never both: the container only calls back after {@code isReady()} returned
+ * {@code false}, and a page is only requested after it returned {@code true}.
+ */
+class CustomerPageStream implements WriteListener, AsyncListener {
+
+    private static final int ESTIMATED_LINE_SIZE = 256;
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream output;
+    private final ObjectWriter writer;
+    private final Function<String, Slice<CustomerView>> pages;
+    private final Executor executor;
+
+    private ByteArrayOutputStream pending;
+    private String afterId;
+    private boolean lastPage;
+    private boolean closed;
+
+    CustomerPageStream(AsyncContext asyncContext, ObjectWriter writer, Function<String, Slice<CustomerView>> pages, Executor executor)
+            throws IOException {
+        this.asyncContext = asyncContext;
+        this.output = asyncContext.getResponse().getOutputStream();
+        this.writer = writer;
+        this.pages = pages;
+        this.executor = executor;
+    }
+
+    void start() {
+        asyncContext.addListener(this);
+        output.setWriteListener(this);
+    }
+
+    @Override
+    public synchronized void onWritePossible() throws IOException {
+        while (!closed && output.isReady()) {
+            if (pending != null) {
+                pending.writeTo(output);
+                pending = null;
+            } else if (lastPage) {
+                close();
+            } else {
+                executor.execute(this::readNextPage);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        close();
+    }
+
+    @Override
+    public synchronized void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public synchronized void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void readNextPage() {
+        try {
+            Slice<CustomerView> page = pages.apply(afterId);
+            ByteArrayOutputStream serialized = serialize(page.getContent());
+            synchronized (this) {
+                pending = serialized;
+                lastPage = !page.hasNext();
+                if (page.hasContent()) {
+                    afterId = page.getContent().get(page.getNumberOfElements() - 1).getId();
+                }
+            }
+            onWritePossible();
+        } catch (IOException | RuntimeException e) {
+            onError(e);
+        }
+    }
+
+    /**
+     * One generator for the whole page, and the bytes are later written out as they are, without a copy.
+     */
+    private ByteArrayOutputStream serialize(List<CustomerView> customers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(customers.size() * ESTIMATED_LINE_SIZE);
+        try (JsonGenerator generator = writer.getFactory().createGenerator(bytes)) {
+            for (CustomerView customer : customers) {
+                writer.writeValue(generator, customer);
+                generator.writeRaw('\n');
+            }
+        }
+        return bytes;
+    }
+
+    private void close() {
+        if (!closed) {
+            closed = true;
+            asyncContext.complete();
+        }
+    }
+}
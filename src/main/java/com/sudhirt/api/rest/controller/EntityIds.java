@@ -0,0 +1,52 @@
+package com.sudhirt.api.rest.controller;
+
+import com.sudhirt.api.rest.exception.DataValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Checks the ids and cursors of requests against how ids are stored. With {@code customers.ids.storage=binary}
+ * only UUIDs can be stored, so any other id or cursor is rejected here instead of reaching the database.
+ */
+@Component
+class EntityIds {
+
+    private final boolean uuids;
+
+    EntityIds(@Value("${customers.ids.storage:string}") String storage) {
+        this.uuids = "binary".equals(storage);
+    }
+
+    void check(String... ids) {
+        for (String id : ids) {
+            if (!isValid(id)) {
+                throw new DataValidationException("Invalid id is provided.");
+            }
+        }
+    }
+
+    /**
+     * Decodes the cursor into the id to continue after, {@code null} for the first page.
+     */
+    String afterId(String cursor) {
+        String afterId = Cursors.decode(cursor);
+        if (afterId != null && !isValid(afterId)) {
+            throw new DataValidationException("Invalid cursor is provided.");
+        }
+        return afterId;
+    }
+
+    private boolean isValid(String id) {
+        if (!uuids) {
+            return true;
+        }
+        try {
+            // UUID.fromString also accepts shortened groups, which do not round-trip
+            return UUID.fromString(id).toString().equalsIgnoreCase(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
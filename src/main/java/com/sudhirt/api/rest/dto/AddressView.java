@@ -0,0 +1,30 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sudhirt.api.rest.constant.AddressType;
+import com.sudhirt.api.rest.entity.Address;
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of an {@link Address}, built by the query itself: no entity, proxy or dirty-checking snapshot
+ * is created for it. Serializes exactly like the entity, with {@link AddressViewSerializer}.
+ */
+@Value
+@JsonSerialize(using = AddressViewSerializer.class)
+public class AddressView {
+
+    private String id;
+    private AddressType addressType;
+    private String address1;
+    private String address2;
+    private String city;
+    private String state;
+    private String country;
+    private String zipcode;
+    private String customerId;
+    private Long revision;
+    private Date createdDate;
+    private Date modifiedDate;
+}
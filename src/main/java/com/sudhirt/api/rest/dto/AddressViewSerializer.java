@@ -0,0 +1,40 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link AddressView} field by field, in the property order of the entity's JSON, instead of through the
+ * reflective bean serializer. The customer id is not written, as the entity does not write its customer.
+ */
+public class AddressViewSerializer extends StdSerializer<AddressView> {
+
+    private static final SerializableString[] NAMES = ViewFields.names(NameTransformer.NOP,
+            "revision", "createdDate", "modifiedDate", "id", "addressType", "address1", "address2", "city", "state", "country", "zipcode");
+
+    public AddressViewSerializer() {
+        super(AddressView.class);
+    }
+
+    @Override
+    public void serialize(AddressView address, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(address);
+        ViewFields.writeNumber(generator, NAMES[0], address.getRevision());
+        ViewFields.writeTimestamp(generator, NAMES[1], address.getCreatedDate(), provider);
+        ViewFields.writeTimestamp(generator, NAMES[2], address.getModifiedDate(), provider);
+        ViewFields.writeString(generator, NAMES[3], address.getId());
+        ViewFields.writeString(generator, NAMES[4], address.getAddressType() == null ? null : address.getAddressType().name());
+        ViewFields.writeString(generator, NAMES[5], address.getAddress1());
+        ViewFields.writeString(generator, NAMES[6], address.getAddress2());
+        ViewFields.writeString(generator, NAMES[7], address.getCity());
+        ViewFields.writeString(generator, NAMES[8], address.getState());
+        ViewFields.writeString(generator, NAMES[9], address.getCountry());
+        ViewFields.writeString(generator, NAMES[10], address.getZipcode());
+        generator.writeEndObject();
+    }
+}
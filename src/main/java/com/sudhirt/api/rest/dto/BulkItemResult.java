@@ -0,0 +1,23 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single item of a bulk request, reported at the item's position in the request.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+
+    private int index;
+    private int status;
+    private String id;
+    private String error;
+
+    public BulkItemResult(int index) {
+        this.index = index;
+    }
+}
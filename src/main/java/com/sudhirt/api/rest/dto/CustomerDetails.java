@@ -0,0 +1,16 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collection;
+
+@Data
+@AllArgsConstructor
+public class CustomerDetails {
+
+    @JsonUnwrapped
+    private CustomerView customer;
+    private Collection<AddressView> addresses;
+}
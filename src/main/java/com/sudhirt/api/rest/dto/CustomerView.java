@@ -0,0 +1,38 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sudhirt.api.rest.entity.Customer;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Read-only projection of a {@link Customer}, built by the query itself: no entity, proxy or dirty-checking snapshot
+ * is created for it. Serializes exactly like the entity, with {@link CustomerViewSerializer}.
+ */
+@Value
+@JsonSerialize(using = CustomerViewSerializer.class)
+public class CustomerView {
+
+    private String id;
+    private String salutation;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private Long revision;
+    private Date createdDate;
+    private Date modifiedDate;
+
+    public static CustomerView of(Customer customer) {
+        return new CustomerView(customer.getId(), customer.getSalutation(), customer.getFirstName(), customer.getLastName(),
+                customer.getDateOfBirth(), customer.getRevision(), customer.getCreatedDate(), customer.getModifiedDate());
+    }
+
+    /**
+     * Same as {@link Customer#isEmpty()}, which clients receive as the {@code empty} property.
+     */
+    public boolean isEmpty() {
+        return salutation == null && firstName == null && lastName == null && dateOfBirth == null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link CustomerView} field by field, in the property order of the entity's JSON, instead of through the
+ * reflective bean serializer. Also writes the fields alone for {@code @JsonUnwrapped}, as {@link CustomerDetails} does.
+ */
+public class CustomerViewSerializer extends StdSerializer<CustomerView> {
+
+    private final SerializableString[] names;
+    private final boolean unwrapping;
+
+    public CustomerViewSerializer() {
+        this(NameTransformer.NOP, false);
+    }
+
+    private CustomerViewSerializer(NameTransformer transformer, boolean unwrapping) {
+        super(CustomerView.class);
+        this.names = ViewFields.names(transformer,
+                "revision", "createdDate", "modifiedDate", "id", "salutation", "firstName", "lastName", "dateOfBirth", "empty");
+        this.unwrapping = unwrapping;
+    }
+
+    @Override
+    public void serialize(CustomerView customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (!unwrapping) {
+            generator.writeStartObject(customer);
+        }
+        ViewFields.writeNumber(generator, names[0], customer.getRevision());
+        ViewFields.writeTimestamp(generator, names[1], customer.getCreatedDate(), provider);
+        ViewFields.writeTimestamp(generator, names[2], customer.getModifiedDate(), provider);
+        ViewFields.writeString(generator, names[3], customer.getId());
+        ViewFields.writeString(generator, names[4], customer.getSalutation());
+        ViewFields.writeString(generator, names[5], customer.getFirstName());
+        ViewFields.writeString(generator, names[6], customer.getLastName());
+        ViewFields.writeDate(generator, names[7], customer.getDateOfBirth());
+        generator.writeFieldName(names[8]);
+        generator.writeBoolean(customer.isEmpty());
+        if (!unwrapping) {
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public JsonSerializer<CustomerView> unwrappingSerializer(NameTransformer transformer) {
+        return new CustomerViewSerializer(transformer, true);
+    }
+
+    @Override
+    public boolean isUnwrappingSerializer() {
+        return unwrapping;
+    }
+}
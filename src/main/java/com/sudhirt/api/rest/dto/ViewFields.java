@@ -0,0 +1,119 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Field writers shared by the view serializers. Each writes the property the way the bean serializer would with the
+ * application's ObjectMapper, including {@code null}s, without going through reflection or a {@link DateFormat}.
+ * Timestamps are written with thread-safe {@link DateTimeFormatter}s built once per time zone of the mapper, so the
+ * output does not depend on the JVM's default time zone and no formatter is created per value.
+ */
+final class ViewFields {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSZ", Locale.ROOT);
+    private static final ConcurrentMap<String, DateTimeFormatter> TIMESTAMP_FORMATS = new ConcurrentHashMap<>();
+    // StdDateFormat switches to the Julian calendar before the Gregorian cutover; a day of margin covers any zone
+    private static final long MIN_TIMESTAMP = Instant.parse("1583-01-02T00:00:00Z").toEpochMilli();
+    private static final long MAX_TIMESTAMP = Instant.parse("9999-12-30T23:59:59.999Z").toEpochMilli();
+
+    private ViewFields() {
+    }
+
+    static SerializableString[] names(NameTransformer transformer, String... names) {
+        SerializableString[] serialized = new SerializableString[names.length];
+        for (int i = 0; i < names.length; i++) {
+            serialized[i] = new SerializedString(transformer.transform(names[i]));
+        }
+        return serialized;
+    }
+
+    static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    static void writeNumber(JsonGenerator generator, SerializableString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    /**
+     * ISO {@code yyyy-MM-dd}, as the JSR-310 module writes a {@link LocalDate} in string shape.
+     */
+    static void writeDate(JsonGenerator generator, SerializableString name, LocalDate value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format(value));
+        }
+    }
+
+    /**
+     * {@code yyyy-MM-dd'T'HH:mm:ss.SSS+0000} as Jackson's default {@link StdDateFormat} writes it in the mapper's time
+     * zone. Any other date settings of the mapper go through the provider as before.
+     */
+    static void writeTimestamp(JsonGenerator generator, SerializableString name, Date value, SerializerProvider provider) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        long millis = value.getTime();
+        TimeZone timeZone = defaultFormatTimeZone(provider);
+        if (timeZone == null || millis < MIN_TIMESTAMP || millis > MAX_TIMESTAMP) {
+            provider.defaultSerializeDateValue(value, generator);
+            return;
+        }
+        generator.writeString(timestampFormat(timeZone).format(Instant.ofEpochMilli(millis)));
+    }
+
+    /**
+     * @return the time zone the mapper writes dates in with its default {@link StdDateFormat}, {@code null} if it
+     * writes them in any other way
+     */
+    private static TimeZone defaultFormatTimeZone(SerializerProvider provider) {
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            return null;
+        }
+        DateFormat format = provider.getConfig().getDateFormat();
+        if (format.getClass() != StdDateFormat.class || ((StdDateFormat) format).isColonIncludedInTimeZone()) {
+            return null;
+        }
+        // the mapper's time zone, if any, is already applied to its format
+        return format.getTimeZone() == null ? provider.getConfig().getTimeZone() : format.getTimeZone();
+    }
+
+    private static DateTimeFormatter timestampFormat(TimeZone timeZone) {
+        DateTimeFormatter format = TIMESTAMP_FORMATS.get(timeZone.getID());
+        if (format == null) {
+            format = TIMESTAMP_FORMATS.computeIfAbsent(timeZone.getID(), id -> TIMESTAMP_FORMAT.withZone(timeZone.toZoneId()));
+        }
+        return format;
+    }
+}
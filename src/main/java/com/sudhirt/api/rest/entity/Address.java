@@ -1,14 +1,15 @@
 package com.sudhirt.api.rest.entity;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sudhirt.api.rest.constant.AddressType;
 import lombok.*;
-import net.minidev.json.annotate.JsonIgnore;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
 @Entity
 @Data
@@ -20,28 +21,36 @@ public class Address extends BaseEntity {
 
     @Id
     @GeneratedValue(generator = "system-uuid")
-    @GenericGenerator(name = "system-uuid", strategy = "uuid2")
+    @GenericGenerator(name = "system-uuid", strategy = "com.sudhirt.api.rest.entity.TimeOrderedUuidGenerator")
+    @Type(type = EntityIdTypeContributor.NAME)
     private String id;
     @NotNull
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private AddressType addressType;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String address1;
+    @Size(max = 255)
     private String address2;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String city;
+    @Size(max = 255)
     private String state;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String country;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String zipcode;
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "CUSTOMER_ID")
-    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    // always the customer of the request path, never one named in the body
+    @JsonIgnore
     private Customer customer;
 }
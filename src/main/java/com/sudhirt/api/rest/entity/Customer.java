@@ -4,12 +4,14 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
 import java.util.Collection;
-import java.util.Date;
 
 @Entity
 @Data
@@ -21,21 +23,25 @@ public class Customer extends BaseEntity {
 
     @Id
     @GeneratedValue(generator = "system-uuid")
-    @GenericGenerator(name = "system-uuid", strategy = "uuid2")
+    @GenericGenerator(name = "system-uuid", strategy = "com.sudhirt.api.rest.entity.TimeOrderedUuidGenerator")
+    @Type(type = EntityIdTypeContributor.NAME)
     protected String id;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String salutation;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String firstName;
     @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String lastName;
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     @NotNull
     @Column(nullable = false)
-    private Date dateOfBirth;
+    private LocalDate dateOfBirth;
     @OneToMany(mappedBy = "customer", fetch = FetchType.LAZY)
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Collection<Address> addresses;
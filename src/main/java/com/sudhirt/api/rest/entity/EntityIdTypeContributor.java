@@ -0,0 +1,23 @@
+package com.sudhirt.api.rest.entity;
+
+import org.hibernate.boot.model.TypeContributions;
+import org.hibernate.boot.model.TypeContributor;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.StringType;
+
+/**
+ * Registers the {@value #NAME} type of the entity ids. Ids are strings in the entities and the API; they are stored
+ * as such or, with {@code customers.ids.storage=binary}, as the 16 bytes of their UUID.
+ */
+public class EntityIdTypeContributor implements TypeContributor {
+
+    public static final String NAME = "entity-id";
+    public static final String STORAGE_SETTING = "customers.ids.storage";
+
+    @Override
+    public void contribute(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+        Object storage = serviceRegistry.getService(ConfigurationService.class).getSettings().get(STORAGE_SETTING);
+        typeContributions.contributeType("binary".equals(storage) ? BinaryUuidType.INSTANCE : StringType.INSTANCE, NAME);
+    }
+}
@@ -0,0 +1,29 @@
+package com.sudhirt.api.rest.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates version 7 UUIDs: the leading 48 bits are the creation time in milliseconds, the others are random.
+ * <p>
+ * Ids created close in time sort close together, both as strings and as bytes, so new rows are appended at the end of
+ * the primary key and foreign key indexes instead of landing on random pages of them.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return next(System.currentTimeMillis(), ThreadLocalRandom.current()).toString();
+    }
+
+    static UUID next(long epochMillis, Random random) {
+        long mostSigBits = epochMillis << 16 | 0x7000L | random.nextInt(0x1000);
+        long leastSigBits = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
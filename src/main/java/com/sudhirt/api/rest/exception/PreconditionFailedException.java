@@ -0,0 +1,11 @@
+package com.sudhirt.api.rest.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+@ResponseStatus(value = PRECONDITION_FAILED, reason = "Resource has been modified")
+public class PreconditionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = -3410851546470364263L;
+}
@@ -0,0 +1,11 @@
+package com.sudhirt.api.rest.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@ResponseStatus(value = SERVICE_UNAVAILABLE, reason = "Too many concurrent requests")
+public class ServiceUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 2318462930170518390L;
+}
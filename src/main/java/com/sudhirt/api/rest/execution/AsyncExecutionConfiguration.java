@@ -0,0 +1,63 @@
+package com.sudhirt.api.rest.execution;
+
+import com.sudhirt.api.rest.controller.AsyncCustomerController;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Set;
+
+/**
+ * Non-blocking reads, enabled with {@code customers.execution.mode=async}.
+ * <p>
+ * The routes of {@link AsyncCustomerController} are mapped ahead of the synchronous controller, which keeps serving
+ * every request they do not match. Their JPA calls run on a pool of {@code customers.execution.db.max-concurrency}
+ * threads, which is then the only thread count growing with the database load.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customers.execution.mode", havingValue = "async")
+public class AsyncExecutionConfiguration {
+
+    @Bean(AsyncCustomerController.DATABASE_EXECUTOR)
+    public ThreadPoolTaskExecutor databaseExecutor(@Value("${customers.execution.db.max-concurrency:10}") int maxConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setThreadNamePrefix("db-");
+        return executor;
+    }
+
+    @Bean
+    public AsyncCustomerController asyncCustomerController() {
+        return new AsyncCustomerController();
+    }
+
+    @Bean
+    public RequestMappingHandlerMapping asyncCustomerHandlerMapping(
+            @Qualifier("mvcContentNegotiationManager") ContentNegotiationManager contentNegotiationManager) {
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping() {
+            @Override
+            protected boolean isHandler(Class<?> beanType) {
+                return AsyncCustomerController.class.isAssignableFrom(beanType);
+            }
+
+            @Override
+            protected HandlerMethod handleNoMatch(Set<RequestMappingInfo> infos, String lookupPath, HttpServletRequest request) {
+                // leaves other methods and media types on the same paths to the synchronous controller
+                return null;
+            }
+        };
+        mapping.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        mapping.setContentNegotiationManager(contentNegotiationManager);
+        return mapping;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sudhirt.api.rest.execution;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts a {@link ConcurrencyLimitingDataSource} in front of every DataSource bean and publishes the permits and queue
+ * of the limiters it creates.
+ * <p>
+ * The gauges are registered against the limiters themselves rather than a DataSource looked up from the context:
+ * meter registries are bound while the DataSource is still being initialized, when only the unwrapped pool can be
+ * looked up. Whichever of a limiter and a registry comes second registers the gauges.
+ */
+class ConcurrencyLimitingDataSourcePostProcessor implements BeanPostProcessor, MeterBinder {
+
+    private final int maxConcurrency;
+    private final long acquireTimeoutMillis;
+    private final List<ConcurrencyLimitingDataSource> limiters = new ArrayList<>();
+    private final List<MeterRegistry> registries = new ArrayList<>();
+
+    ConcurrencyLimitingDataSourcePostProcessor(int maxConcurrency, long acquireTimeoutMillis) {
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public synchronized Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+            ConcurrencyLimitingDataSource limiter = new ConcurrencyLimitingDataSource((DataSource) bean, maxConcurrency, acquireTimeoutMillis);
+            limiters.add(limiter);
+            registries.forEach(registry -> register(limiter, registry));
+            return limiter;
+        }
+        return bean;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        limiters.forEach(limiter -> register(limiter, registry));
+    }
+
+    private static void register(ConcurrencyLimitingDataSource limiter, MeterRegistry registry) {
+        Gauge.builder(ElasticExecutionConfiguration.DB_PERMITS_METRIC_NAME, limiter, ConcurrencyLimitingDataSource::getAvailablePermits)
+                .register(registry);
+        Gauge.builder(ElasticExecutionConfiguration.DB_QUEUED_METRIC_NAME, limiter, ConcurrencyLimitingDataSource::getQueueLength)
+                .register(registry);
+    }
+}
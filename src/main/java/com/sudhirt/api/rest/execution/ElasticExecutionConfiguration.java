@@ -0,0 +1,66 @@
+package com.sudhirt.api.rest.execution;
+
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request execution for many concurrent, mostly blocked requests, enabled with
+ * {@code customers.execution.mode=elastic}.
+ * <p>
+ * Tomcat runs requests on up to {@code customers.execution.max-threads} threads with a small stack, so a request
+ * waiting on the database only costs a cheap thread instead of holding one of a couple of hundred. Checking out
+ * connections is limited to {@code customers.execution.db.max-concurrency} at a time by a
+ * {@link ConcurrencyLimitingDataSource}, so the extra threads queue fairly in front of the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customers.execution.mode", havingValue = "elastic")
+public class ElasticExecutionConfiguration {
+
+    static final String DB_PERMITS_METRIC_NAME = "db.connections.permits";
+    static final String DB_QUEUED_METRIC_NAME = "db.connections.queued";
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor requestExecutor(@Value("${customers.execution.min-threads:10}") int minThreads,
+                                              @Value("${customers.execution.max-threads:2000}") int maxThreads,
+                                              @Value("${customers.execution.thread-stack-size-kb:256}") long stackSizeKb) {
+        // Tomcat's own queue only queues once no more threads can be started
+        TaskQueue queue = new TaskQueue();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(minThreads, maxThreads, 60, TimeUnit.SECONDS, queue,
+                smallStackThreads("http-elastic-", stackSizeKb * 1024));
+        queue.setParent(executor);
+        return executor;
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> elasticExecutorCustomizer(ThreadPoolExecutor requestExecutor) {
+        return factory -> factory.addConnectorCustomizers(connector ->
+                ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(requestExecutor));
+    }
+
+    @Bean
+    public static ConcurrencyLimitingDataSourcePostProcessor concurrencyLimitingDataSourcePostProcessor(
+            @Value("${customers.execution.db.max-concurrency:10}") int maxConcurrency,
+            @Value("${customers.execution.db.acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
+        return new ConcurrencyLimitingDataSourcePostProcessor(maxConcurrency, acquireTimeoutMillis);
+    }
+
+    private static ThreadFactory smallStackThreads(String namePrefix, long stackSize) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(null, task, namePrefix + count.incrementAndGet(), stackSize);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.sudhirt.api.rest.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Attributes the time spent in services and Spring Data repositories to the current request.
+ */
+@Aspect
+public class PhaseTimingAspect {
+
+    @Around("within(@org.springframework.stereotype.Service *)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics == null) {
+            return joinPoint.proceed();
+        }
+        boolean outermost = metrics.enterService();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            metrics.exitService(outermost, System.nanoTime() - start);
+        }
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics == null) {
+            return joinPoint.proceed();
+        }
+        boolean outermost = metrics.enterRepository();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            metrics.exitRepository(outermost, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.sudhirt.api.rest.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered through {@code hibernate.session_factory.statement_inspector}, so it is instantiated by Hibernate
+ * and keeps its state in a thread local rather than in a Spring bean.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = -2143826271342839128L;
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long count() {
+        return COUNT.get()[0];
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+}
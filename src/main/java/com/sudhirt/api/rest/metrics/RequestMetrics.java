@@ -0,0 +1,99 @@
+package com.sudhirt.api.rest.metrics;
+
+/**
+ * Time spent in each layer while handling the request bound to the current thread.
+ * <p>
+ * Only the outermost call of a layer is timed, so a service calling another service is not counted twice.
+ * Repository calls made from a service are tracked separately so the service phase can be reported
+ * exclusive of them.
+ */
+public class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long handlerEndNanos;
+    private int serviceDepth;
+    private int repositoryDepth;
+    private long serviceNanos;
+    private long repositoryNanos;
+    private long repositoryInServiceNanos;
+    private long serializationNanos;
+    private long sqlNanos;
+
+    static RequestMetrics start() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the metrics of the request handled by the current thread, or {@code null} outside of a request
+     */
+    static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    void handlerCompleted() {
+        handlerEndNanos = System.nanoTime();
+    }
+
+    boolean enterService() {
+        return serviceDepth++ == 0;
+    }
+
+    void exitService(boolean outermost, long nanos) {
+        serviceDepth--;
+        if (outermost) {
+            serviceNanos += nanos;
+        }
+    }
+
+    boolean enterRepository() {
+        return repositoryDepth++ == 0;
+    }
+
+    void exitRepository(boolean outermost, long nanos) {
+        repositoryDepth--;
+        if (outermost) {
+            repositoryNanos += nanos;
+            if (serviceDepth > 0) {
+                repositoryInServiceNanos += nanos;
+            }
+        }
+    }
+
+    void addSerialization(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    void addSql(long nanos) {
+        sqlNanos += nanos;
+    }
+
+    long getControllerNanos() {
+        long handlerNanos = (handlerEndNanos == 0 ? System.nanoTime() : handlerEndNanos) - startNanos;
+        long outsideServiceRepositoryNanos = repositoryNanos - repositoryInServiceNanos;
+        return Math.max(0, handlerNanos - serviceNanos - outsideServiceRepositoryNanos - serializationNanos);
+    }
+
+    long getServiceNanos() {
+        return Math.max(0, serviceNanos - repositoryInServiceNanos);
+    }
+
+    long getRepositoryNanos() {
+        return repositoryNanos;
+    }
+
+    long getSerializationNanos() {
+        return serializationNanos;
+    }
+
+    long getSqlNanos() {
+        return sqlNanos;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sudhirt.api.rest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, per request method and matched URI template:
+ * <ul>
+ * <li>{@code http.server.requests.phase}: time spent in the controller, service, repository and
+ * serialization phases, tagged with {@code phase}</li>
+ * <li>{@code http.server.requests.queries}: number of SQL statements issued</li>
+ * <li>{@code http.server.requests.sql}: time spent executing SQL statements</li>
+ * </ul>
+ */
+public class RequestMetricsInterceptor extends HandlerInterceptorAdapter {
+
+    static final String PHASE_METRIC_NAME = "http.server.requests.phase";
+    static final String QUERIES_METRIC_NAME = "http.server.requests.queries";
+    static final String SQL_METRIC_NAME = "http.server.requests.sql";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountingStatementInspector.reset();
+        RequestMetrics.start();
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.handlerCompleted();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri == null ? "UNKNOWN" : uri.toString());
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            recordPhase(tags, "controller", metrics.getControllerNanos());
+            recordPhase(tags, "service", metrics.getServiceNanos());
+            recordPhase(tags, "repository", metrics.getRepositoryNanos());
+            recordPhase(tags, "serialization", metrics.getSerializationNanos());
+            meterRegistry.timer(SQL_METRIC_NAME, tags).record(metrics.getSqlNanos(), TimeUnit.NANOSECONDS);
+        }
+        meterRegistry.summary(QUERIES_METRIC_NAME, tags).record(QueryCountingStatementInspector.count());
+        QueryCountingStatementInspector.clear();
+        RequestMetrics.clear();
+    }
+
+    private void recordPhase(Tags tags, String phase, long nanos) {
+        meterRegistry.timer(PHASE_METRIC_NAME, tags.and("phase", phase)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
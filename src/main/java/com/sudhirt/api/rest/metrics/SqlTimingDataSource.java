@@ -0,0 +1,78 @@
+package com.sudhirt.api.rest.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Attributes the time spent in JDBC statement executions to the current request,
+ * by handing out connections whose statements time their {@code execute*} calls.
+ */
+public class SqlTimingDataSource extends DelegatingDataSource {
+
+    public SqlTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection(), this::connectionResult);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password), this::connectionResult);
+    }
+
+    private Object connectionResult(Method method, Object result) {
+        switch (method.getName()) {
+            case "createStatement":
+                return proxy(Statement.class, result, (statementMethod, statementResult) -> statementResult);
+            case "prepareStatement":
+                return proxy(PreparedStatement.class, result, (statementMethod, statementResult) -> statementResult);
+            case "prepareCall":
+                return proxy(CallableStatement.class, result, (statementMethod, statementResult) -> statementResult);
+            default:
+                return result;
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultWrapper wrapper) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            boolean timed = method.getName().startsWith("execute");
+            RequestMetrics metrics = timed ? RequestMetrics.current() : null;
+            long start = System.nanoTime();
+            try {
+                return wrapper.wrap(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } finally {
+                if (metrics != null) {
+                    metrics.addSql(System.nanoTime() - start);
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(SqlTimingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface ResultWrapper {
+
+        Object wrap(Method method, Object result);
+    }
+}
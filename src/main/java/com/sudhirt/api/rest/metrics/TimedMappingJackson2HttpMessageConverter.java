@@ -0,0 +1,32 @@
+package com.sudhirt.api.rest.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Attributes the time spent writing JSON response bodies to the serialization phase of the current request.
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        RequestMetrics metrics = RequestMetrics.current();
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            if (metrics != null) {
+                metrics.addSerialization(System.nanoTime() - start);
+            }
+        }
+    }
+}
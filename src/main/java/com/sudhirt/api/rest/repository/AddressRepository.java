@@ -1,17 +1,44 @@
 package com.sudhirt.api.rest.repository;
 
+import com.sudhirt.api.rest.dto.AddressView;
 import com.sudhirt.api.rest.entity.Address;
 import com.sudhirt.api.rest.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AddressRepository extends JpaRepository<Address, String> {
 
+    String ADDRESS_VIEW = "new com.sudhirt.api.rest.dto.AddressView(a.id, a.addressType, a.address1, a.address2, a.city, a.state, "
+            + "a.country, a.zipcode, a.customer.id, a.revision, a.createdDate, a.modifiedDate)";
+
     List<Address> findByCustomerId(String customerId);
 
     Optional<Address> getByIdAndCustomerId(String id, String customerId);
+
+    @Query("select " + ADDRESS_VIEW + " from Address a where a.customer.id = :customerId")
+    List<AddressView> findViewsByCustomerId(@Param("customerId") String customerId);
+
+    @Query("select " + ADDRESS_VIEW + " from Address a where a.customer.id in :customerIds")
+    List<AddressView> findViewsByCustomerIdIn(@Param("customerIds") Collection<String> customerIds);
+
+    @Query("select " + ADDRESS_VIEW + " from Address a where a.id = :id and a.customer.id = :customerId")
+    Optional<AddressView> findViewByIdAndCustomerId(@Param("id") String id, @Param("customerId") String customerId);
+
+    @Query("select a.revision as revision, a.modifiedDate as modifiedDate from Address a where a.id = :id and a.customer.id = :customerId")
+    Optional<EntityVersion> findVersionByIdAndCustomerId(@Param("id") String id, @Param("customerId") String customerId);
+
+    @Query("select a.id as id, a.revision as revision, a.modifiedDate as modifiedDate from Address a where a.customer.id = :customerId")
+    List<AddressVersion> findVersionsByCustomerId(@Param("customerId") String customerId);
+
+    @Modifying
+    @Query("delete from Address a where a.id = :id and a.customer.id = :customerId")
+    int deleteByIdAndCustomerId(@Param("id") String id, @Param("customerId") String customerId);
 }
@@ -0,0 +1,6 @@
+package com.sudhirt.api.rest.repository;
+
+public interface AddressVersion extends EntityVersion {
+
+    String getId();
+}
@@ -1,9 +1,44 @@
 package com.sudhirt.api.rest.repository;
 
+import com.sudhirt.api.rest.dto.CustomerView;
 import com.sudhirt.api.rest.entity.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String> {
+
+    String CUSTOMER_VIEW = "new com.sudhirt.api.rest.dto.CustomerView(c.id, c.salutation, c.firstName, c.lastName, c.dateOfBirth, "
+            + "c.revision, c.createdDate, c.modifiedDate)";
+
+    @Query("select c.revision as revision, c.modifiedDate as modifiedDate from Customer c where c.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") String id);
+
+    @Query("select " + CUSTOMER_VIEW + " from Customer c order by c.id")
+    Slice<CustomerView> findFirstViews(Pageable pageable);
+
+    @Query("select " + CUSTOMER_VIEW + " from Customer c where c.id > :afterId order by c.id")
+    Slice<CustomerView> findViewsByIdGreaterThan(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("select " + CUSTOMER_VIEW + " from Customer c order by c.id")
+    List<CustomerView> findAllViews();
+
+    @Query("select " + CUSTOMER_VIEW + " from Customer c where c.id > :afterId order by c.id")
+    List<CustomerView> findAllViewsByIdGreaterThan(@Param("afterId") String afterId);
+
+    @Query("select " + CUSTOMER_VIEW + " from Customer c order by c.id")
+    @QueryHints(@QueryHint(name = FETCH_SIZE, value = "500"))
+    Stream<CustomerView> streamAllViews();
 }
@@ -0,0 +1,13 @@
+package com.sudhirt.api.rest.repository;
+
+import java.util.Date;
+
+/**
+ * Projection of the versioning columns of an entity, read without loading the entity itself.
+ */
+public interface EntityVersion {
+
+    Long getRevision();
+
+    Date getModifiedDate();
+}
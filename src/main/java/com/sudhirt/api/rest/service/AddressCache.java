@@ -0,0 +1,76 @@
+package com.sudhirt.api.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sudhirt.api.rest.dto.AddressView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.sudhirt.api.rest.service.CacheTransactions.afterCommit;
+import static com.sudhirt.api.rest.service.CacheTransactions.inReadWriteTransaction;
+
+/**
+ * Bounded read-through cache of the addresses of each customer.
+ * <p>
+ * Entries are unmodifiable lists of immutable views, shared by all readers. Every write to a customer's addresses
+ * evicts its list once the surrounding transaction commits, and a list loaded while any eviction happened is not
+ * stored, so a slow reader cannot put back what a concurrent writer just replaced. That check and the store are one
+ * atomic step on the entry, which an eviction, counted before it invalidates the entry, waits for. Reads inside a
+ * read-write transaction bypass the cache to see that transaction's own changes.
+ */
+@Component
+public class AddressCache {
+
+    static final String NAME = "addresses";
+
+    private final Cache<String, List<AddressView>> cache;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AddressCache(@Value("${customers.cache.addresses-spec:maximumSize=10000,expireAfterWrite=5m}") String spec,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.from(spec).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public List<AddressView> get(String customerId, Function<String, List<AddressView>> loader) {
+        if (inReadWriteTransaction()) {
+            return loader.apply(customerId);
+        }
+        List<AddressView> cached = cache.getIfPresent(customerId);
+        if (cached != null) {
+            return cached;
+        }
+        long evictionsBeforeLoad = evictions.get();
+        List<AddressView> loaded = Collections.unmodifiableList(loader.apply(customerId));
+        cache.asMap().compute(customerId, (id, current) -> evictions.get() == evictionsBeforeLoad ? loaded : current);
+        return loaded;
+    }
+
+    /**
+     * Returns the customer's cached addresses without loading them on a miss.
+     *
+     * @return the addresses, or {@code null} if they are not cached
+     */
+    public List<AddressView> getIfPresent(String customerId) {
+        return inReadWriteTransaction() ? null : cache.getIfPresent(customerId);
+    }
+
+    public void evict(String customerId) {
+        afterCommit(() -> {
+            evictions.incrementAndGet();
+            cache.invalidate(customerId);
+        });
+    }
+
+    public void clear() {
+        evictions.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
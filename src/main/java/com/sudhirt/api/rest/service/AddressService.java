@@ -1,14 +1,29 @@
 package com.sudhirt.api.rest.service;
 
+import com.sudhirt.api.rest.dto.AddressView;
 import com.sudhirt.api.rest.entity.Address;
 import com.sudhirt.api.rest.entity.Customer;
+import com.sudhirt.api.rest.exception.DataValidationException;
 import com.sudhirt.api.rest.exception.NotFoundException;
+import com.sudhirt.api.rest.exception.PreconditionFailedException;
 import com.sudhirt.api.rest.repository.AddressRepository;
+import com.sudhirt.api.rest.repository.AddressVersion;
+import com.sudhirt.api.rest.repository.CustomerRepository;
+import com.sudhirt.api.rest.repository.EntityVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AddressService {
@@ -17,30 +32,180 @@ public class AddressService {
     private AddressRepository addressRepository;
 
     @Autowired
-    private CustomerService customerService;
+    private CustomerRepository customerRepository;
 
-    public List<Address> getByCustomerId(String customerId) {
-        customerService.getById(customerId);
-        return addressRepository.findByCustomerId(customerId);
+    @Autowired
+    private AddressCache addressCache;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Reads the addresses first and only checks that the customer exists when none are found,
+     * so a customer with addresses costs a single query. Addresses are cached per customer until one of them
+     * changes; on a miss they are read as views inside a read-only transaction, whose flush mode is MANUAL, so a
+     * hit needs neither a transaction nor a connection.
+     */
+    public List<AddressView> getByCustomerId(String customerId) {
+        return addressCache.get(customerId, id -> readOnlyTransaction.execute(status -> loadByCustomerId(id)));
+    }
+
+    private List<AddressView> loadByCustomerId(String customerId) {
+        List<AddressView> addresses = addressRepository.findViewsByCustomerId(customerId);
+        if (addresses.isEmpty() && !customerRepository.existsById(customerId)) {
+            throw new NotFoundException();
+        }
+        return addresses;
+    }
+
+    /**
+     * Reads only the id, revision and modification date of the customer's addresses,
+     * for answering conditional requests.
+     */
+    public List<AddressVersion> getVersionsByCustomerId(String customerId) {
+        List<AddressVersion> versions = addressRepository.findVersionsByCustomerId(customerId);
+        if (versions.isEmpty() && !customerRepository.existsById(customerId)) {
+            throw new NotFoundException();
+        }
+        return versions;
+    }
+
+    public EntityVersion getVersionByIdAndCustomerId(String addressId, String customerId) {
+        return addressRepository.findVersionByIdAndCustomerId(addressId, customerId).orElseThrow(NotFoundException::new);
     }
 
+    /**
+     * Saves the address for the customer {@code customerId}, whatever customer the address refers to.
+     */
     @Transactional
     public Address save(String customerId, Address address) {
-        Customer customer = customerService.getById(customerId);
-        address.setCustomer(customer);
-        return addressRepository.save(address);
+        address.setCustomer(getCustomerReference(customerId));
+        Address saved = addressRepository.save(address);
+        addressCache.evict(customerId);
+        return saved;
+    }
+
+    /**
+     * Creates all addresses for the customer in one transaction, resolving the customer once and flushing
+     * every JDBC batch worth of inserts. Either every address is created or, if any is invalid, none is.
+     *
+     * @return the generated address ids, in request order
+     */
+    @Transactional
+    public List<String> saveAll(String customerId, List<Address> addresses) {
+        validate(addresses);
+        Customer customer = getCustomerReference(customerId);
+        List<String> ids = new ArrayList<>(addresses.size());
+        for (Address address : addresses) {
+            address.setCustomer(customer);
+            ids.add(addressRepository.save(address).getId());
+            if (ids.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        addressCache.evict(customerId);
+        return ids;
+    }
+
+    /**
+     * Applies the non-null fields of {@code changes} with a single versioned UPDATE.
+     *
+     * @param expectedRevision the revision the client based its changes on, or {@code null} to update unconditionally
+     * @return the address's revision after the update, {@code null} if it was updated unconditionally
+     * @throws PreconditionFailedException if the address exists with another revision
+     */
+    @Transactional
+    public Long update(String addressId, String customerId, Long expectedRevision, Address changes) {
+        VersionedUpdate<Address> update = VersionedUpdate.of(entityManager, validator, Address.class)
+                .set("addressType", changes.getAddressType())
+                .set("address1", changes.getAddress1())
+                .set("address2", changes.getAddress2())
+                .set("city", changes.getCity())
+                .set("state", changes.getState())
+                .set("country", changes.getCountry())
+                .set("zipcode", changes.getZipcode())
+                .where("id", addressId)
+                .where("customer.id", customerId)
+                .whereRevision(expectedRevision);
+        if (!update.hasChanges()) {
+            Long revision = getVersionByIdAndCustomerId(addressId, customerId).getRevision();
+            if (expectedRevision != null && !expectedRevision.equals(revision)) {
+                throw new PreconditionFailedException();
+            }
+            return revision;
+        }
+        if (update.execute() == 0) {
+            if (expectedRevision == null || !addressRepository.findVersionByIdAndCustomerId(addressId, customerId).isPresent()) {
+                throw new NotFoundException();
+            }
+            throw new PreconditionFailedException();
+        }
+        addressCache.evict(customerId);
+        return expectedRevision == null ? null : expectedRevision + 1;
     }
 
     public Address getById(String addressId) {
         return addressRepository.findById(addressId).orElseThrow(NotFoundException::new);
     }
 
-    public Address getByIdAndCustomerId(String addressId, String customerId) {
-        return addressRepository.getByIdAndCustomerId(addressId, customerId).orElseThrow(NotFoundException::new);
+    /**
+     * Picks the address from the customer's cached addresses if they are cached, without loading them otherwise.
+     */
+    public AddressView getByIdAndCustomerId(String addressId, String customerId) {
+        List<AddressView> cached = addressCache.getIfPresent(customerId);
+        Optional<AddressView> address = cached == null
+                ? addressRepository.findViewByIdAndCustomerId(addressId, customerId)
+                : cached.stream().filter(candidate -> candidate.getId().equals(addressId)).findFirst();
+        return address.orElseThrow(NotFoundException::new);
     }
 
+    @Transactional
     public void deleteByIdAndCustomerId(String addressId, String customerId) {
-        Address address = getByIdAndCustomerId(addressId, customerId);
-        addressRepository.delete(address);
+        if (addressRepository.deleteByIdAndCustomerId(addressId, customerId) == 0) {
+            throw new NotFoundException();
+        }
+        addressCache.evict(customerId);
+    }
+
+    /**
+     * Returns an uninitialized reference to the customer after a primary key only existence check,
+     * instead of loading the whole customer.
+     */
+    private Customer getCustomerReference(String customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new NotFoundException();
+        }
+        return customerRepository.getOne(customerId);
+    }
+
+    private void validate(List<Address> addresses) {
+        if (addresses.isEmpty()) {
+            throw new DataValidationException("No addresses are provided.");
+        }
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < addresses.size(); i++) {
+            Set<ConstraintViolation<Address>> violations = validator.validate(addresses.get(i));
+            for (ConstraintViolation<Address> violation : violations) {
+                errors.add("[" + i + "]." + violation.getPropertyPath() + " " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new DataValidationException(String.join(", ", errors));
+        }
     }
 }
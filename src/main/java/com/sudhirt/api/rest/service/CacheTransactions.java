@@ -0,0 +1,35 @@
+package com.sudhirt.api.rest.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction awareness shared by the caches: writes wait for the commit, and reads inside a read-write transaction
+ * bypass the cache.
+ */
+final class CacheTransactions {
+
+    private CacheTransactions() {
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away outside of one.
+     */
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,105 @@
+package com.sudhirt.api.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sudhirt.api.rest.entity.Customer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.sudhirt.api.rest.service.CacheTransactions.afterCommit;
+import static com.sudhirt.api.rest.service.CacheTransactions.inReadWriteTransaction;
+
+/**
+ * Bounded read-through cache of customers by id.
+ * <p>
+ * Entries are detached copies and every read hands out a fresh copy, so callers may modify what they get.
+ * Writes are applied only once the surrounding transaction commits, and an entry is never replaced by
+ * one with an older revision, so a slow reader cannot overwrite what a concurrent writer just stored.
+ * A customer loaded while any eviction happened is not stored either, so a reader that loaded the row before
+ * an update or delete committed cannot put it back once that write evicted it. That check and the store are one
+ * atomic step on the entry, which an eviction, counted before it invalidates the entry, waits for.
+ * Reads inside a read-write transaction bypass the cache to see that transaction's own changes.
+ */
+@Component
+public class CustomerCache {
+
+    static final String NAME = "customers";
+
+    private final Cache<String, Customer> cache;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CustomerCache(@Value("${customers.cache.spec:maximumSize=10000,expireAfterWrite=5m}") String spec,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.from(spec).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public Optional<Customer> get(String id, Function<String, Optional<Customer>> loader) {
+        if (inReadWriteTransaction()) {
+            return loader.apply(id);
+        }
+        Customer cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long evictionsBeforeLoad = evictions.get();
+        Optional<Customer> loaded = loader.apply(id);
+        loaded.ifPresent(customer -> storeUnlessEvictedSince(customer, evictionsBeforeLoad));
+        return loaded;
+    }
+
+    /**
+     * Stores the customer once the current transaction commits, reading its revision at that point
+     * so the version increment applied on flush is taken into account.
+     */
+    public void put(Customer customer) {
+        afterCommit(() -> store(customer));
+    }
+
+    public void evict(String id) {
+        afterCommit(() -> {
+            evictions.incrementAndGet();
+            cache.invalidate(id);
+        });
+    }
+
+    public void clear() {
+        evictions.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void store(Customer customer) {
+        cache.asMap().merge(customer.getId(), copyOf(customer),
+                (cached, fresh) -> revisionOf(fresh) >= revisionOf(cached) ? fresh : cached);
+    }
+
+    private void storeUnlessEvictedSince(Customer customer, long evictionsBeforeLoad) {
+        Customer fresh = copyOf(customer);
+        cache.asMap().compute(customer.getId(), (id, cached) -> evictions.get() != evictionsBeforeLoad
+                || cached != null && revisionOf(fresh) < revisionOf(cached) ? cached : fresh);
+    }
+
+    private static long revisionOf(Customer customer) {
+        return customer.getRevision() == null ? -1 : customer.getRevision();
+    }
+
+    private static Customer copyOf(Customer customer) {
+        Customer copy = Customer.builder()
+                .id(customer.getId())
+                .salutation(customer.getSalutation())
+                .firstName(customer.getFirstName())
+                .lastName(customer.getLastName())
+                .dateOfBirth(customer.getDateOfBirth())
+                .build();
+        copy.setRevision(customer.getRevision());
+        copy.setCreatedDate(customer.getCreatedDate());
+        copy.setModifiedDate(customer.getModifiedDate());
+        return copy;
+    }
+}
@@ -1,36 +1,289 @@
 package com.sudhirt.api.rest.service;
 
+import com.sudhirt.api.rest.dto.AddressView;
+import com.sudhirt.api.rest.dto.BulkItemResult;
+import com.sudhirt.api.rest.dto.CustomerDetails;
+import com.sudhirt.api.rest.dto.CustomerView;
 import com.sudhirt.api.rest.entity.Customer;
 import com.sudhirt.api.rest.exception.NotFoundException;
+import com.sudhirt.api.rest.exception.PreconditionFailedException;
+import com.sudhirt.api.rest.repository.AddressRepository;
 import com.sudhirt.api.rest.repository.CustomerRepository;
+import com.sudhirt.api.rest.repository.EntityVersion;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collection;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+@Slf4j
 @Service
 public class CustomerService {
 
+    static final String CHUNK_CONFLICT = "conflicts with stored data, no customer of its chunk was saved";
+
     @Autowired
     private CustomerRepository customerRepository;
 
-    public Collection<Customer> getAll() {
-        return customerRepository.findAll();
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private AddressCache addressCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${customers.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    /**
+     * Returns up to a page of customers ordered by id, starting right after {@code afterId}, or all of them for an
+     * unpaged request. A {@code null} afterId starts from the first customer.
+     * Customers are read as views inside a read-only transaction, whose flush mode is MANUAL.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CustomerView> getPage(String afterId, Pageable page) {
+        if (page.isUnpaged()) {
+            // sliced queries need a page size
+            return new SliceImpl<>(afterId == null ? customerRepository.findAllViews() : customerRepository.findAllViewsByIdGreaterThan(afterId));
+        }
+        return afterId == null ? customerRepository.findFirstViews(page) : customerRepository.findViewsByIdGreaterThan(afterId, page);
+    }
+
+    /**
+     * Same as {@link #getPage(String, Pageable)}, with the addresses of the whole page fetched in a single query
+     * instead of one query per customer.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CustomerDetails> getPageWithAddresses(String afterId, Pageable page) {
+        Slice<CustomerView> customers = getPage(afterId, page);
+        if (!customers.hasContent()) {
+            return customers.map(customer -> new CustomerDetails(customer, Collections.emptyList()));
+        }
+        List<String> customerIds = customers.getContent().stream().map(CustomerView::getId).collect(toList());
+        Map<String, List<AddressView>> addresses = addressRepository.findViewsByCustomerIdIn(customerIds).stream()
+                .collect(groupingBy(AddressView::getCustomerId));
+        return customers.map(customer -> new CustomerDetails(customer, addresses.getOrDefault(customer.getId(), Collections.emptyList())));
+    }
+
+    /**
+     * Hands every customer, ordered by id, to the consumer while the underlying cursor is still open.
+     * Customers are read as views, which the persistence context does not track, so it does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<CustomerView> consumer) {
+        try (Stream<CustomerView> customers = customerRepository.streamAllViews()) {
+            customers.forEach(consumer);
+        }
     }
 
     public Customer getById(String id) {
-        return customerRepository.findById(id).orElseThrow(NotFoundException::new);
+        return customerCache.get(id, customerRepository::findById).orElseThrow(NotFoundException::new);
+    }
+
+    /**
+     * Reads only the revision and modification date of the customer, for answering conditional requests.
+     */
+    public EntityVersion getVersion(String id) {
+        return customerRepository.findVersionById(id).orElseThrow(NotFoundException::new);
     }
 
     @Transactional
     public Customer save(Customer customer) {
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        customerCache.put(saved);
+        return saved;
+    }
+
+    /**
+     * Applies the non-null fields of {@code changes} with a single versioned UPDATE.
+     *
+     * @param expectedRevision the revision the client based its changes on, or {@code null} to update unconditionally
+     * @throws PreconditionFailedException if the customer exists with another revision
+     */
+    @Transactional
+    public void update(String id, Long expectedRevision, Customer changes) {
+        int updated = VersionedUpdate.of(entityManager, validator, Customer.class)
+                .set("salutation", changes.getSalutation())
+                .set("firstName", changes.getFirstName())
+                .set("lastName", changes.getLastName())
+                .set("dateOfBirth", changes.getDateOfBirth())
+                .where("id", id)
+                .whereRevision(expectedRevision)
+                .execute();
+        if (updated == 0) {
+            if (!customerRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            throw new PreconditionFailedException();
+        }
+        customerCache.evict(id);
+    }
+
+    /**
+     * Validates and saves the customers as they are read from the iterator, committing every
+     * {@code customers.bulk.chunk-size} valid items in their own transaction so Hibernate can send them
+     * as JDBC batches.
+     * <p>
+     * Items without an id are created and must be complete. Items with an id update that customer, which must
+     * exist, with their non-null fields only; a revision, if given, must be the customer's current one.
+     * A chunk that fails to commit, including on errors only the database reports on flush, reports every one of
+     * its items as a conflict; other chunks are unaffected.
+     */
+    public List<BulkItemResult> saveAll(Iterator<Customer> customers) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<Customer> chunk = new ArrayList<>(bulkChunkSize);
+        List<BulkItemResult> chunkResults = new ArrayList<>(bulkChunkSize);
+        int index = 0;
+        while (customers.hasNext()) {
+            Customer customer = customers.next();
+            BulkItemResult result = new BulkItemResult(index++);
+            results.add(result);
+            String error = validate(customer);
+            if (error != null) {
+                reject(result, HttpStatus.BAD_REQUEST, error);
+                continue;
+            }
+            chunk.add(customer);
+            chunkResults.add(result);
+            if (chunk.size() == bulkChunkSize) {
+                saveChunk(chunk, chunkResults);
+            }
+        }
+        saveChunk(chunk, chunkResults);
+        return results;
+    }
+
+    private void saveChunk(List<Customer> chunk, List<BulkItemResult> chunkResults) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                Map<String, Customer> existing = customerRepository.findAllById(chunk.stream()
+                        .map(Customer::getId)
+                        .filter(Objects::nonNull)
+                        .collect(toSet()))
+                        .stream()
+                        .collect(toMap(Customer::getId, Function.identity()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    Customer customer = chunk.get(i);
+                    BulkItemResult result = chunkResults.get(i);
+                    if (customer.getId() == null) {
+                        result.setId(customerRepository.save(customer).getId());
+                        result.setStatus(HttpStatus.CREATED.value());
+                        continue;
+                    }
+                    Customer current = existing.get(customer.getId());
+                    if (current == null) {
+                        reject(result, HttpStatus.NOT_FOUND, "id does not exist");
+                    } else if (customer.getRevision() != null && !customer.getRevision().equals(current.getRevision())) {
+                        reject(result, HttpStatus.PRECONDITION_FAILED, "revision is not the current one");
+                    } else {
+                        applyChanges(current, customer);
+                        customerCache.evict(current.getId());
+                        result.setId(current.getId());
+                        result.setStatus(HttpStatus.OK.value());
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // flush errors surface as untranslated PersistenceExceptions, commit errors as TransactionExceptions;
+            // their messages name tables and constraints, so clients only learn that the chunk was rolled back
+            log.warn("Bulk chunk of {} customers rolled back", chunk.size(), e);
+            chunkResults.stream()
+                    .filter(result -> result.getError() == null)
+                    .forEach(result -> {
+                        result.setId(null);
+                        reject(result, HttpStatus.CONFLICT, CHUNK_CONFLICT);
+                    });
+        }
+        chunk.clear();
+        chunkResults.clear();
+    }
+
+    /**
+     * A new customer must be complete; an update must change something, and only its non-null fields are checked.
+     */
+    private String validate(Customer customer) {
+        if (customer.getId() == null && customer.getRevision() != null) {
+            return "revision requires an id";
+        }
+        if (customer.getId() != null && customer.isEmpty()) {
+            return "no fields to update";
+        }
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+        String error = violations.stream()
+                .filter(violation -> customer.getId() == null || violation.getInvalidValue() != null)
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(joining(", "));
+        return error.isEmpty() ? null : error;
+    }
+
+    private static void applyChanges(Customer customer, Customer changes) {
+        if (changes.getSalutation() != null) {
+            customer.setSalutation(changes.getSalutation());
+        }
+        if (changes.getFirstName() != null) {
+            customer.setFirstName(changes.getFirstName());
+        }
+        if (changes.getLastName() != null) {
+            customer.setLastName(changes.getLastName());
+        }
+        if (changes.getDateOfBirth() != null) {
+            customer.setDateOfBirth(changes.getDateOfBirth());
+        }
+    }
+
+    private static void reject(BulkItemResult result, HttpStatus status, String error) {
+        result.setStatus(status.value());
+        result.setError(error);
     }
 
     @Transactional
     public void delete(String id) {
         getById(id);
         customerRepository.deleteById(id);
+        customerCache.evict(id);
+        addressCache.evict(id);
     }
 }
@@ -0,0 +1,108 @@
+package com.sudhirt.api.rest.service;
+
+import com.sudhirt.api.rest.exception.DataValidationException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds a single {@code UPDATE ... SET <supplied columns>, revision = revision + 1 WHERE ... [AND revision = ?]}
+ * statement, so a partial update needs neither a pre-read nor a dirty check.
+ * <p>
+ * Being a bulk statement it bypasses the persistence context: pending changes are flushed before it runs
+ * and the context is cleared afterwards so no stale copy of the row survives. It also bypasses the Bean Validation
+ * Hibernate runs on flush, so every supplied value is validated against its attribute's constraints instead.
+ */
+class VersionedUpdate<T> {
+
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final Class<T> type;
+    private final CriteriaBuilder criteriaBuilder;
+    private final CriteriaUpdate<T> update;
+    private final Root<T> root;
+    private final List<Predicate> predicates = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private boolean changed;
+
+    private VersionedUpdate(EntityManager entityManager, Validator validator, Class<T> type) {
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.type = type;
+        this.criteriaBuilder = entityManager.getCriteriaBuilder();
+        this.update = criteriaBuilder.createCriteriaUpdate(type);
+        this.root = update.from(type);
+    }
+
+    static <T> VersionedUpdate<T> of(EntityManager entityManager, Validator validator, Class<T> type) {
+        return new VersionedUpdate<>(entityManager, validator, type);
+    }
+
+    /**
+     * Sets the attribute, unless the value is {@code null}.
+     */
+    VersionedUpdate<T> set(String attribute, Object value) {
+        if (value != null) {
+            for (ConstraintViolation<T> violation : validator.validateValue(type, attribute, value)) {
+                errors.add(attribute + " " + violation.getMessage());
+            }
+            update.set(attribute, value);
+            changed = true;
+        }
+        return this;
+    }
+
+    VersionedUpdate<T> where(String attribute, Object value) {
+        predicates.add(criteriaBuilder.equal(pathOf(attribute), value));
+        return this;
+    }
+
+    /**
+     * Restricts the update to the given revision, unless it is {@code null}.
+     */
+    VersionedUpdate<T> whereRevision(Long revision) {
+        if (revision != null) {
+            predicates.add(criteriaBuilder.equal(root.get("revision"), revision));
+        }
+        return this;
+    }
+
+    boolean hasChanges() {
+        return changed;
+    }
+
+    /**
+     * @return the number of updated rows
+     * @throws DataValidationException if any supplied value violates its attribute's constraints
+     */
+    int execute() {
+        if (!errors.isEmpty()) {
+            throw new DataValidationException(String.join(", ", errors));
+        }
+        Path<Long> revision = root.get("revision");
+        update.set(revision, criteriaBuilder.sum(revision, 1L));
+        update.set("modifiedDate", new Date());
+        update.where(predicates.toArray(new Predicate[0]));
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    private Path<Object> pathOf(String attribute) {
+        Path<Object> path = null;
+        for (String part : attribute.split("\\.")) {
+            path = path == null ? root.get(part) : path.get(part);
+        }
+        return path;
+    }
+}
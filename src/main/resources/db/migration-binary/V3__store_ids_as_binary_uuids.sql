@@ -0,0 +1,30 @@
+-- Stores the ids as the 16 bytes of their UUID instead of 36 characters, for customers.ids.storage=binary
+-- (see application-binary-ids.yml). Existing string ids are converted in place, so every id must be a UUID string.
+-- Kept out of db/migration so that a migration tool scanning that location never converts string-id databases.
+-- UUID(<string>) is the HSQLDB conversion; other databases have their own (e.g. UUID_TO_BIN on MySQL).
+
+drop index idx_address_customer_versions;
+drop index idx_customer_versions;
+alter table address drop constraint fk_address_customer;
+
+alter table customer add column binary_id binary(16);
+update customer set binary_id = uuid(id);
+alter table customer drop column id cascade;
+alter table customer alter column binary_id rename to id;
+alter table customer alter column id set not null;
+alter table customer add primary key (id);
+
+alter table address add column binary_id binary(16);
+alter table address add column binary_customer_id binary(16);
+update address set binary_id = uuid(id), binary_customer_id = uuid(customer_id);
+alter table address drop column id cascade;
+alter table address drop column customer_id cascade;
+alter table address alter column binary_id rename to id;
+alter table address alter column binary_customer_id rename to customer_id;
+alter table address alter column id set not null;
+alter table address alter column customer_id set not null;
+alter table address add primary key (id);
+alter table address add constraint fk_address_customer foreign key (customer_id) references customer (id);
+
+create index idx_address_customer_versions on address (customer_id, id, revision, modified_date);
+create index idx_customer_versions on customer (id, revision, modified_date);
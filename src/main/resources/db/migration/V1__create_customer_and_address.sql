@@ -0,0 +1,28 @@
+create table customer (
+    id            varchar(255) not null,
+    created_date  timestamp,
+    modified_date timestamp,
+    revision      bigint,
+    salutation    varchar(255) not null,
+    first_name    varchar(255) not null,
+    last_name     varchar(255) not null,
+    date_of_birth timestamp    not null,
+    primary key (id)
+);
+
+create table address (
+    id            varchar(255) not null,
+    created_date  timestamp,
+    modified_date timestamp,
+    revision      bigint,
+    address_type  varchar(255) not null,
+    address1      varchar(255) not null,
+    address2      varchar(255),
+    city          varchar(255) not null,
+    state         varchar(255),
+    country       varchar(255) not null,
+    zipcode       varchar(255) not null,
+    customer_id   varchar(255) not null,
+    primary key (id),
+    constraint fk_address_customer foreign key (customer_id) references customer (id)
+);
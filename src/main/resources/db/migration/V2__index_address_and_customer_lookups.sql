@@ -0,0 +1,7 @@
+-- Addresses are always read through their customer: by customer_id alone for the address list and with the address
+-- id for a single address. The version columns come last so the version projections answering conditional GETs,
+-- AddressRepository.findVersionsByCustomerId and findVersionByIdAndCustomerId, can be served from the index alone.
+create index idx_address_customer_versions on address (customer_id, id, revision, modified_date);
+
+-- Same for CustomerRepository.findVersionById, answering conditional GET /customers/{id}.
+create index idx_customer_versions on customer (id, revision, modified_date);
@@ -0,0 +1,2 @@
+-- A birth date has no time of day: stored as a date, mapped to java.time.LocalDate. Existing values keep their day.
+alter table customer alter column date_of_birth set data type date;
@@ -0,0 +1,121 @@
+package com.sudhirt.api.rest.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.Response;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"customers.execution.mode=async", "customers.execution.stream-page-size=7"})
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:sql/before.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
+public class AsyncCustomerControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    @Qualifier("asyncCustomerHandlerMapping")
+    private RequestMappingHandlerMapping asyncCustomerHandlerMapping;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void getCustomersPage() {
+        String cursor = given().port(port).param("limit", 15)
+                .when().get("/customers")
+                .then().statusCode(200).body("$", hasSize(15))
+                .extract().header(CustomerController.NEXT_CURSOR_HEADER);
+
+        given().port(port).param("limit", 15).param("cursor", cursor)
+                .when().get("/customers")
+                .then().statusCode(200).body("$", hasSize(5)).header(CustomerController.NEXT_CURSOR_HEADER, (String) null);
+    }
+
+    @Test
+    public void getCustomersWithAddresses() {
+        given().port(port).param("expand", "addresses")
+                .when().get("/customers")
+                .then().statusCode(200).body("$", hasSize(20)).body("[0].addresses", hasSize(3));
+    }
+
+    @Test
+    public void streamAllCustomers() throws Exception {
+        String[] lines = given().port(port).accept(CustomerController.APPLICATION_NDJSON_VALUE)
+                .when().get("/customers")
+                .then().statusCode(200).contentType(CustomerController.APPLICATION_NDJSON_VALUE)
+                .extract().asString().split("\n");
+
+        assertThat(lines).hasSize(20);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("1");
+    }
+
+    @Test
+    public void getCustomerByIdConditionally() {
+        Response response = given().port(port)
+                .when().get("/customers/1");
+        response.then().statusCode(200).body("firstName", is("FIRST_NAME1")).header(HttpHeaders.ETAG, notNullValue());
+
+        given().port(port).header(HttpHeaders.IF_NONE_MATCH, response.header(HttpHeaders.ETAG))
+                .when().get("/customers/1")
+                .then().statusCode(304);
+        given().port(port).header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .when().get("/customers/1")
+                .then().statusCode(200).body("id", is("1"));
+    }
+
+    @Test
+    public void getUnknownCustomer() {
+        given().port(port)
+                .when().get("/customers/100")
+                .then().statusCode(404);
+        given().port(port)
+                .when().get("/customers/100/addresses")
+                .then().statusCode(404);
+    }
+
+    @Test
+    public void getCustomerAddresses() {
+        given().port(port)
+                .when().get("/customers/1/addresses")
+                .then().statusCode(200).body("$", hasSize(3));
+        given().port(port)
+                .when().get("/customers/1/addresses/1")
+                .then().statusCode(200).body("addressType", is("RESIDENCE"));
+    }
+
+    @Test
+    public void mapsOnlyReadsAhead() throws Exception {
+        HandlerExecutionChain read = asyncCustomerHandlerMapping.getHandler(new MockHttpServletRequest("GET", "/customers/1/addresses"));
+        assertThat(((HandlerMethod) read.getHandler()).getBeanType()).isEqualTo(AsyncCustomerController.class);
+        assertThat(asyncCustomerHandlerMapping.getHandler(new MockHttpServletRequest("POST", "/customers/1/addresses"))).isNull();
+    }
+
+    @Test
+    public void writesStayOnTheSynchronousController() {
+        given().port(port)
+                .when().delete("/customers/1/addresses/1")
+                .then().statusCode(204);
+        given().port(port)
+                .when().get("/customers/1/addresses")
+                .then().statusCode(200).body("$", hasSize(2));
+    }
+}
@@ -0,0 +1,149 @@
+package com.sudhirt.api.rest.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sudhirt.api.rest.constant.AddressType;
+import com.sudhirt.api.rest.entity.Address;
+import com.sudhirt.api.rest.entity.Customer;
+import org.flywaydb.core.Flyway;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("binary-ids")
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
+public class BinaryIdStorageTest {
+
+    private static final String MIGRATIONS = "classpath:db/migration";
+    private static final String BINARY_MIGRATIONS = "classpath:db/migration-binary";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void storesIdsAsBytesAndServesThemAsStrings() throws Exception {
+        String customerId = create("/customers", Customer.builder().salutation("Mr.").firstName("FIRST_NAME").lastName("LAST_NAME")
+                .dateOfBirth(LocalDate.now()).build());
+        String addressId = create("/customers/" + customerId + "/addresses", Address.builder().addressType(AddressType.RESIDENCE)
+                .address1("ADDRESS1").city("CITY").country("COUNTRY").zipcode("123456").build());
+
+        assertThat(UUID.fromString(customerId).version()).isEqualTo(7);
+        assertThat(jdbcTemplate.queryForObject("select id from customer", byte[].class)).hasSize(16);
+        assertThat(jdbcTemplate.queryForObject("select customer_id from address", byte[].class)).hasSize(16);
+
+        mockMvc.perform(get("/customers/" + customerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(customerId)));
+        mockMvc.perform(get("/customers/" + customerId + "/addresses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(addressId)));
+        mockMvc.perform(get("/customers/" + customerId + "/addresses/" + addressId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.zipcode", is("123456")));
+    }
+
+    @Test
+    public void pagesThroughCustomersByCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            create("/customers", Customer.builder().salutation("Mr.").firstName("FIRST_NAME" + i).lastName("LAST_NAME").dateOfBirth(LocalDate.now()).build());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/customers").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(2)))
+                .andReturn();
+        mockMvc.perform(get("/customers").param("limit", "2")
+                .param("cursor", firstPage.getResponse().getHeader(CustomerController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(header().doesNotExist(CustomerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void unknownIdsAreNotFound() throws Exception {
+        mockMvc.perform(get("/customers/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/customers/" + UUID.randomUUID() + "/addresses/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void malformedIdsAndCursorsAreRejected() throws Exception {
+        mockMvc.perform(get("/customers/1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers/" + UUID.randomUUID() + "/addresses/1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers").param("cursor", Cursors.encode("1")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void migratesStringIds() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().generateUniqueName(true).build();
+        try {
+            Flyway flyway = new Flyway();
+            flyway.setDataSource(database);
+            flyway.setLocations(MIGRATIONS);
+            flyway.migrate();
+            String customerId = UUID.randomUUID().toString();
+            JdbcTemplate jdbc = new JdbcTemplate(database);
+            jdbc.update("insert into customer (id, salutation, first_name, last_name, date_of_birth) values (?, 'Mr.', 'FIRST_NAME', 'LAST_NAME', sysdate)",
+                    customerId);
+            jdbc.update("insert into address (id, address_type, address1, city, country, zipcode, customer_id) values (?, 'RESIDENCE', 'ADDRESS1', 'CITY', 'COUNTRY', '123456', ?)",
+                    UUID.randomUUID().toString(), customerId);
+
+            // switching an existing database to binary ids applies V3 out of order, after the shared migrations
+            flyway.setLocations(MIGRATIONS, BINARY_MIGRATIONS);
+            flyway.setOutOfOrder(true);
+            flyway.migrate();
+
+            assertThat(jdbc.queryForObject("select count(*) from address a join customer c on a.customer_id = c.id where c.id = uuid(?)",
+                    Integer.class, customerId)).isEqualTo(1);
+            assertThat(jdbc.queryForObject("select uuid(id) from customer", String.class)).isEqualTo(customerId);
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private String create(String path, Object body) throws Exception {
+        MvcResult result = mockMvc.perform(post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        JsonNode created = objectMapper.readTree(result.getResponse().getContentAsString());
+        return created.get("id").asText();
+    }
+}
@@ -4,11 +4,16 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sudhirt.api.rest.constant.AddressType;
 import com.sudhirt.api.rest.entity.Address;
+import com.sudhirt.api.rest.service.AddressService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -16,9 +21,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -35,6 +47,12 @@ public class CustomerControllerAddressTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AddressService addressService;
+
     @Test
     public void getCustomerAddresses() throws Exception {
         mockMvc.perform(get("/customers/1/addresses"))
@@ -42,12 +60,96 @@ public class CustomerControllerAddressTest {
                 .andExpect(jsonPath("$.*", hasSize(3)));
     }
 
+    @Test
+    public void getCustomerAddressSerializesLikeTheEntity() throws Exception {
+        String address = mockMvc.perform(get("/customers/1/addresses/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(address).isEqualTo(objectMapper.writeValueAsString(addressService.getById("1")));
+    }
+
+    @Test
+    public void getCustomerAddressesRecordsQueryCount() throws Exception {
+        DistributionSummary queries = meterRegistry.summary("http.server.requests.queries",
+                "method", "GET", "uri", "/customers/{customerId}/addresses");
+        double totalBefore = queries.totalAmount();
+
+        mockMvc.perform(get("/customers/1/addresses"))
+                .andExpect(status().isOk());
+
+        assertThat(queries.totalAmount() - totalBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void getCustomerAddressesRecordsPhaseTimings() throws Exception {
+        mockMvc.perform(get("/customers/1/addresses"))
+                .andExpect(status().isOk());
+
+        for (String phase : Arrays.asList("controller", "service", "repository", "serialization")) {
+            Timer timer = meterRegistry.find("http.server.requests.phase")
+                    .tags("uri", "/customers/{customerId}/addresses", "phase", phase)
+                    .timer();
+            assertThat(timer).as(phase).isNotNull();
+            assertThat(timer.count()).as(phase).isPositive();
+        }
+        Timer repository = meterRegistry.get("http.server.requests.phase")
+                .tags("uri", "/customers/{customerId}/addresses", "phase", "repository")
+                .timer();
+        assertThat(repository.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("http.server.requests.sql").tags("uri", "/customers/{customerId}/addresses").timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("http.server.requests.phase.percentile")
+                .tags("uri", "/customers/{customerId}/addresses", "phase", "repository", "phi", "0.99")
+                .gauge()).isNotNull();
+    }
+
     @Test
     public void getCustomerAddress() throws Exception {
         mockMvc.perform(get("/customers/1/addresses/1"))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void getCustomerAddressesNotModified() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/customers/1/addresses"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String etag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/customers/1/addresses").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/customers/2/addresses").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)));
+    }
+
+    @Test
+    @Transactional
+    public void getCustomerAddressesModified() throws Exception {
+        String etag = mockMvc.perform(get("/customers/1/addresses"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(delete("/customers/1/addresses/2"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/customers/1/addresses").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(2)));
+    }
+
+    @Test
+    public void getCustomerAddressNotModified() throws Exception {
+        mockMvc.perform(get("/customers/1/addresses/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/customers/1/addresses/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/customers/1/addresses/5").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void getAddressesWithNonExistingCustomer() throws Exception {
         mockMvc.perform(get("/customers/100/addresses"))
@@ -115,6 +217,75 @@ public class CustomerControllerAddressTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void createAddressIgnoresCustomerInBody() throws Exception {
+        String address = "{\"addressType\": \"OFFICE\", \"address1\": \"ADDRESS1\", \"city\": \"CITY\", \"country\": \"COUNTRY\","
+                + " \"zipcode\": \"123456\", \"customer\": {\"id\": \"%s\"}}";
+
+        MvcResult mvcResult = mockMvc.perform(post("/customers/6/addresses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(String.format(address, "7")))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String addressId = objectMapper.readTree(mvcResult.getResponse().getContentAsString()).get("id").asText();
+        mockMvc.perform(get("/customers/6/addresses/" + addressId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/customers/7/addresses/" + addressId))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/customers/600/addresses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(String.format(address, "6")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void createAddresses() throws Exception {
+        List<Address> addresses = Arrays.asList(
+                Address.builder().addressType(AddressType.OFFICE).address1("ADDRESS1").city("CITY").country("COUNTRY").zipcode("123456").build(),
+                Address.builder().addressType(AddressType.MAILING).address1("ADDRESS2").city("CITY").country("COUNTRY").zipcode("654321").build());
+
+        MvcResult mvcResult = mockMvc.perform(post("/customers/6/addresses/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(addresses)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.*", hasSize(2)))
+                .andReturn();
+
+        JsonNode ids = objectMapper.readTree(mvcResult.getResponse().getContentAsString());
+
+        mockMvc.perform(get("/customers/6/addresses/" + ids.get(1).asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.address1", is("ADDRESS2")));
+        mockMvc.perform(get("/customers/6/addresses"))
+                .andExpect(jsonPath("$.*", hasSize(2)));
+    }
+
+    @Test
+    public void createAddressesWithInvalidAddress() throws Exception {
+        List<Address> addresses = Arrays.asList(
+                Address.builder().addressType(AddressType.OFFICE).address1("ADDRESS1").city("CITY").country("COUNTRY").zipcode("123456").build(),
+                Address.builder().addressType(AddressType.MAILING).city("CITY").country("COUNTRY").zipcode("654321").build());
+
+        mockMvc.perform(post("/customers/6/addresses/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(addresses)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers/6/addresses"))
+                .andExpect(jsonPath("$.*", hasSize(0)));
+    }
+
+    @Test
+    public void createAddressesForNonExistingCustomer() throws Exception {
+        List<Address> addresses = Collections.singletonList(
+                Address.builder().addressType(AddressType.OFFICE).address1("ADDRESS1").city("CITY").country("COUNTRY").zipcode("123456").build());
+
+        mockMvc.perform(post("/customers/600/addresses/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(addresses)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void updateAddress() throws Exception {
@@ -144,6 +315,79 @@ public class CustomerControllerAddressTest {
                 .andExpect(jsonPath("$.zipcode", is(address.getZipcode())));
     }
 
+    @Test
+    @Transactional
+    public void updateAddressIfMatch() throws Exception {
+        Address address = Address.builder().city("CITY").build();
+
+        mockMvc.perform(put("/customers/1/addresses/1")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(address)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        mockMvc.perform(get("/customers/1/addresses/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.city", is(address.getCity())))
+                .andExpect(jsonPath("$.zipcode", is("500072")));
+    }
+
+    @Test
+    @Transactional
+    public void updateAddressIfMatchWithStaleRevision() throws Exception {
+        Address address = Address.builder().city("CITY").build();
+
+        mockMvc.perform(put("/customers/1/addresses/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(address)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/customers/1/addresses/5")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(address)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void updateAddressWithoutChangesIfMatch() throws Exception {
+        mockMvc.perform(put("/customers/1/addresses/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/customers/1/addresses/1")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @Transactional
+    public void updateAddressWithInvalidValues() throws Exception {
+        String tooLong = String.join("", Collections.nCopies(256, "C"));
+        for (String content : new String[]{"{\"address1\":\"\"}", "{\"city\":\"" + tooLong + "\"}"}) {
+            mockMvc.perform(put("/customers/1/addresses/1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(content))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(put("/customers/1/addresses/1")
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(content))
+                    .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(get("/customers/1/addresses/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.address1", is("H.No. 123")));
+    }
+
     @Test
     @Transactional
     public void updateAddressType() throws Exception {
@@ -3,25 +3,32 @@ package com.sudhirt.api.rest.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sudhirt.api.rest.entity.Customer;
+import com.sudhirt.api.rest.repository.CustomerRepository;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,15 +39,18 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
 public class CustomerControllerTest {
 
-    private static String YYYY_MM_DD = "yyyy-MM-dd";
-    private static SimpleDateFormat simpleDateFormat = new SimpleDateFormat(YYYY_MM_DD);
-
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerController customerController;
+
     @Test
     public void getAllCustomers() throws Exception {
         mockMvc.perform(get("/customers"))
@@ -48,6 +58,80 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.*", hasSize(20)));
     }
 
+    @Test
+    public void getAllCustomersIgnoresDefaultPageSize() throws Exception {
+        ReflectionTestUtils.setField(customerController, "defaultPageSize", 5);
+        try {
+            mockMvc.perform(get("/customers"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.*", hasSize(20)))
+                    .andExpect(header().doesNotExist(CustomerController.NEXT_CURSOR_HEADER));
+            mockMvc.perform(get("/customers").param("expand", "addresses"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.*", hasSize(20)));
+        } finally {
+            ReflectionTestUtils.setField(customerController, "defaultPageSize", 100);
+        }
+    }
+
+    @Test
+    public void getCustomersPage() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/customers").param("limit", "15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(15)))
+                .andExpect(header().exists(CustomerController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/customers")
+                .param("limit", "15")
+                .param("cursor", mvcResult.getResponse().getHeader(CustomerController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(5)))
+                .andExpect(header().doesNotExist(CustomerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void getCustomersPageSerializesLikeTheEntity() throws Exception {
+        String customer = objectMapper.writeValueAsString(customerRepository.findById("1").get());
+        mockMvc.perform(get("/customers").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[" + customer + "]"));
+    }
+
+    @Test
+    public void getCustomersWithAddresses() throws Exception {
+        mockMvc.perform(get("/customers").param("expand", "addresses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(20)))
+                .andExpect(jsonPath("$[0].id", is("1")))
+                .andExpect(jsonPath("$[0].firstName", is("FIRST_NAME1")))
+                .andExpect(jsonPath("$[0].addresses", hasSize(3)))
+                .andExpect(jsonPath("$[1].addresses", hasSize(0)));
+    }
+
+    @Test
+    public void getCustomersWithInvalidLimit() throws Exception {
+        mockMvc.perform(get("/customers").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getCustomersWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/customers").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamCustomers() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/customers").accept(CustomerController.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(20);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("1");
+    }
+
     @Test
     public void getCustomerById() throws Exception {
         mockMvc.perform(get("/customers/1"))
@@ -55,7 +139,34 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is("Mr.")))
                 .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")))
                 .andExpect(jsonPath("$.lastName", is("LAST_NAME1")))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(new Date()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(LocalDate.now().toString())));
+    }
+
+    @Test
+    public void getCustomerByIdNotModified() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/customers/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+
+        mockMvc.perform(get("/customers/1").header(HttpHeaders.IF_NONE_MATCH, mvcResult.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getCustomerByIdWithStaleETag() throws Exception {
+        mockMvc.perform(get("/customers/1").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")));
+    }
+
+    @Test
+    public void getCustomerByInvalidIdWithETag() throws Exception {
+        mockMvc.perform(get("/customers/100").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -67,7 +178,7 @@ public class CustomerControllerTest {
     @Test
     @Transactional
     public void createCustomer() throws Exception {
-        Customer customer = Customer.builder().firstName("FIRST_NAME100").lastName("LAST_NAME100").dateOfBirth(new Date()).salutation("Mrs.").build();
+        Customer customer = Customer.builder().firstName("FIRST_NAME100").lastName("LAST_NAME100").dateOfBirth(LocalDate.now()).salutation("Mrs.").build();
         MvcResult mvcResult = mockMvc.perform(post("/customers")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(customer)))
@@ -81,13 +192,63 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is("Mrs.")))
                 .andExpect(jsonPath("$.firstName", is("FIRST_NAME100")))
                 .andExpect(jsonPath("$.lastName", is("LAST_NAME100")))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(new Date()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(LocalDate.now().toString())));
+    }
+
+    @Test
+    public void createCustomersInBulk() throws Exception {
+        List<Customer> customers = Arrays.asList(
+                Customer.builder().salutation("Mrs.").firstName("FIRST_NAME100").lastName("LAST_NAME100").dateOfBirth(LocalDate.now()).build(),
+                Customer.builder().salutation("Mrs.").lastName("LAST_NAME101").dateOfBirth(LocalDate.now()).build(),
+                Customer.builder().salutation("Mr.").firstName("FIRST_NAME102").lastName("LAST_NAME102").dateOfBirth(LocalDate.now()).build());
+        MvcResult mvcResult = mockMvc.perform(post("/customers/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customers)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(3)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[1].status", is(400)))
+                .andExpect(jsonPath("$[1].error", is("firstName must not be blank")))
+                .andExpect(jsonPath("$[2].status", is(201)))
+                .andReturn();
+
+        JsonNode results = objectMapper.readTree(mvcResult.getResponse().getContentAsString());
+
+        mockMvc.perform(get("/customers/" + results.get(2).get("id").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("FIRST_NAME102")));
+        mockMvc.perform(get("/customers"))
+                .andExpect(jsonPath("$.*", hasSize(22)));
+    }
+
+    @Test
+    public void createCustomersInBulkFromNdjson() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = Customer.builder().salutation("Mr.").firstName("FIRST_NAME" + (100 + i)).lastName("LAST_NAME").dateOfBirth(LocalDate.now()).build();
+            content.append(objectMapper.writeValueAsString(customer)).append('\n');
+        }
+        mockMvc.perform(post("/customers/_bulk")
+                .contentType(CustomerController.APPLICATION_NDJSON_VALUE)
+                .content(content.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(5)))
+                .andExpect(jsonPath("$[4].index", is(4)))
+                .andExpect(jsonPath("$[4].status", is(201)));
+    }
+
+    @Test
+    public void createCustomersInBulkWithMalformedBody() throws Exception {
+        mockMvc.perform(post("/customers/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\": }]"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     @Transactional
     public void createCustomerWithoutSalutation() throws Exception {
-        Customer customer = Customer.builder().firstName("FIRST_NAME100").lastName("LAST_NAME100").dateOfBirth(new Date()).build();
+        Customer customer = Customer.builder().firstName("FIRST_NAME100").lastName("LAST_NAME100").dateOfBirth(LocalDate.now()).build();
         mockMvc.perform(post("/customers")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(customer)))
@@ -97,7 +258,7 @@ public class CustomerControllerTest {
     @Test
     @Transactional
     public void createCustomerWithoutFirstName() throws Exception {
-        Customer customer = Customer.builder().salutation("Mrs.").lastName("LAST_NAME100").dateOfBirth(new Date()).build();
+        Customer customer = Customer.builder().salutation("Mrs.").lastName("LAST_NAME100").dateOfBirth(LocalDate.now()).build();
         mockMvc.perform(post("/customers")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(customer)))
@@ -107,7 +268,7 @@ public class CustomerControllerTest {
     @Test
     @Transactional
     public void createCustomerWithoutLastName() throws Exception {
-        Customer customer = Customer.builder().salutation("Mrs.").firstName("FIRST_NAME100").dateOfBirth(new Date()).build();
+        Customer customer = Customer.builder().salutation("Mrs.").firstName("FIRST_NAME100").dateOfBirth(LocalDate.now()).build();
         mockMvc.perform(post("/customers")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(customer)))
@@ -163,9 +324,7 @@ public class CustomerControllerTest {
     @Test
     @Transactional
     public void updateCustomerDetails() throws Exception {
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(2018, Calendar.JANUARY, 1);
-        Date date = calendar.getTime();
+        LocalDate date = LocalDate.of(2018, 1, 1);
         Customer customer = Customer.builder().salutation("Mrs.").firstName("FirstName").lastName("LastName").dateOfBirth(date).build();
         mockMvc.perform(put("/customers/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -177,7 +336,71 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is(customer.getSalutation())))
                 .andExpect(jsonPath("$.firstName", is(customer.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(customer.getLastName())))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(customer.getDateOfBirth()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(customer.getDateOfBirth().toString())));
+    }
+
+    @Test
+    @Transactional
+    public void updateCustomerIfMatch() throws Exception {
+        Customer customer = Customer.builder().firstName("FirstName").build();
+        mockMvc.perform(put("/customers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.revision", is(2)))
+                .andExpect(jsonPath("$.firstName", is(customer.getFirstName())))
+                .andExpect(jsonPath("$.lastName", is("LAST_NAME1")));
+
+        mockMvc.perform(get("/customers/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.salutation", is("Mr.")))
+                .andExpect(jsonPath("$.firstName", is(customer.getFirstName())))
+                .andExpect(jsonPath("$.lastName", is("LAST_NAME1")));
+    }
+
+    @Test
+    @Transactional
+    public void updateCustomerIfMatchWithStaleRevision() throws Exception {
+        Customer customer = Customer.builder().firstName("FirstName").build();
+        mockMvc.perform(put("/customers/1")
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/customers/1"))
+                .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")));
+    }
+
+    @Test
+    @Transactional
+    public void updateCustomerIfMatchWithInvalidValues() throws Exception {
+        for (String content : new String[]{"{\"firstName\":\"\"}", "{\"lastName\":\"" + String.join("", Collections.nCopies(256, "L")) + "\"}"}) {
+            mockMvc.perform(put("/customers/1")
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(content))
+                    .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(get("/customers/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")))
+                .andExpect(jsonPath("$.lastName", is("LAST_NAME1")));
+    }
+
+    @Test
+    @Transactional
+    public void updateNonExistingCustomerIfMatch() throws Exception {
+        Customer customer = Customer.builder().firstName("FirstName").build();
+        mockMvc.perform(put("/customers/100")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -194,7 +417,7 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is("Mr.")))
                 .andExpect(jsonPath("$.firstName", is(customer.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is("LAST_NAME1")))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(new Date()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(LocalDate.now().toString())));
     }
 
     @Test
@@ -211,7 +434,7 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is("Mr.")))
                 .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")))
                 .andExpect(jsonPath("$.lastName", is(customer.getLastName())))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(new Date()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(LocalDate.now().toString())));
     }
 
     @Test
@@ -228,15 +451,13 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is("Mrs.")))
                 .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")))
                 .andExpect(jsonPath("$.lastName", is("LAST_NAME1")))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(new Date()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(LocalDate.now().toString())));
     }
 
     @Test
     @Transactional
     public void updateCustomerDateOfBirth() throws Exception {
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(2018, Calendar.JANUARY, 1);
-        Date date = calendar.getTime();
+        LocalDate date = LocalDate.of(2018, 1, 1);
         Customer customer = Customer.builder().dateOfBirth(date).build();
         mockMvc.perform(put("/customers/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -248,7 +469,7 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.salutation", is("Mr.")))
                 .andExpect(jsonPath("$.firstName", is("FIRST_NAME1")))
                 .andExpect(jsonPath("$.lastName", is("LAST_NAME1")))
-                .andExpect(jsonPath("$.dateOfBirth", is(simpleDateFormat.format(customer.getDateOfBirth()))));
+                .andExpect(jsonPath("$.dateOfBirth", is(customer.getDateOfBirth().toString())));
     }
 
     @Test
@@ -0,0 +1,62 @@
+package com.sudhirt.api.rest.controller;
+
+import com.sudhirt.api.rest.Application;
+import com.sudhirt.api.rest.controller.utils.LoadGenerator;
+import com.sudhirt.api.rest.controller.utils.LoadReport;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static com.sudhirt.api.rest.controller.ParallelWireMockGeneratorIT.SCENARIOS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load-tests the application in each {@code customers.execution.mode}, booted on its own, and reports the modes side
+ * by side. Tune with {@code -Dload.concurrency},
+ * {@code -Dload.warmup} and {@code -Dload.duration} (seconds):
+ * <pre>
+ * mvn test -Dtest=ExecutionModeLoadIT -Dload.concurrency=2000 -Dload.duration=30
+ * </pre>
+ */
+@Slf4j
+public class ExecutionModeLoadIT {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1000);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup", 3));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration", 10));
+
+    @Test
+    public void compareExecutionModes() throws Exception {
+        try (LoadGenerator loadGenerator = new LoadGenerator(CONCURRENCY)) {
+            LoadReport platform = run(loadGenerator, "platform");
+            LoadReport elastic = run(loadGenerator, "elastic");
+            LoadReport async = run(loadGenerator, "async");
+
+            log.info("{} clients, {}s per mode\n{}", CONCURRENCY, DURATION.getSeconds(), LoadReport.table(platform, elastic, async));
+            assertThat(platform.getErrors()).isZero();
+            assertThat(elastic.getErrors()).isZero();
+            assertThat(async.getErrors()).isZero();
+        }
+    }
+
+    private static LoadReport run(LoadGenerator loadGenerator, String mode) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0",
+                        "customers.execution.mode=" + mode,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.sudhirt.api.rest.controller.ExecutionModeLoadIT=INFO",
+                        "logging.level.wiremock.org=WARN")
+                .run()) {
+            new ResourceDatabasePopulator(new ClassPathResource("sql/before.sql")).execute(context.getBean(DataSource.class));
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return loadGenerator.run(mode, port, SCENARIOS, WARMUP, DURATION);
+        }
+    }
+}
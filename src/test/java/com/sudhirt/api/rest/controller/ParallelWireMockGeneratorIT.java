@@ -0,0 +1,145 @@
+package com.sudhirt.api.rest.controller;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.sudhirt.api.rest.controller.utils.FaultInjection;
+import com.sudhirt.api.rest.controller.utils.IndexedStubReplayer;
+import com.sudhirt.api.rest.controller.utils.LatencyProfile;
+import com.sudhirt.api.rest.controller.utils.ParallelStubRecorder;
+import com.sudhirt.api.rest.controller.utils.RecordingScenario;
+import com.sudhirt.api.rest.controller.utils.RecordingWorkspace;
+import com.sudhirt.api.rest.controller.utils.StubSnapshot;
+import com.sudhirt.api.rest.controller.utils.SyntheticCustomers;
+import com.sudhirt.api.rest.controller.utils.WireMockRecordingInitializer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.sudhirt.api.rest.controller.utils.RecordingScenario.get;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:sql/before.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
+public class ParallelWireMockGeneratorIT {
+
+    static final List<RecordingScenario> SCENARIOS = Arrays.asList(
+            get("/customers", 200),
+            get("/customers/1", 200),
+            get("/customers/1/addresses", 200),
+            get("/customers/1/addresses/1", 200),
+            get("/customers/1/addresses/2", 200),
+            get("/customers/1/addresses/3", 200),
+            get("/customers/2", 200),
+            get("/customers/2/addresses", 200),
+            get("/customers/2/addresses/4", 200),
+            get("/customers/3", 200),
+            get("/customers/3/addresses", 200),
+            get("/customers/3/addresses/5", 200),
+            get("/customers/4/addresses", 200),
+            get("/customers/4/addresses/6", 200),
+            get("/customers/5/addresses/1", 404));
+
+    private static final int REPEATS = 20;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void recordConcurrentlyAndReplay() throws Exception {
+        List<RecordingScenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < REPEATS; i++) {
+            scenarios.addAll(SCENARIOS);
+        }
+        Path root;
+        List<String> failures;
+        List<StubMapping> stubs;
+        try (RecordingWorkspace recording = RecordingWorkspace.create(temporaryFolder.getRoot().toPath())) {
+            ParallelStubRecorder recorder = new ParallelStubRecorder(recording.root(), 8).start(port);
+            failures = recorder.record(scenarios);
+            stubs = recorder.stop();
+            root = recording.publish("parallel");
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(stubs).hasSize(SCENARIOS.size());
+        try (Stream<Path> mappings = Files.list(root.resolve("mappings"))) {
+            assertThat(mappings.count()).isEqualTo(SCENARIOS.size());
+        }
+        assertThat(stubs).allSatisfy(stub -> assertThat(root.resolve("__files").resolve(stub.getResponse().getBodyFileName())).exists());
+
+        replay(IndexedStubReplayer.start(root));
+
+        LatencyProfile latencies = LatencyProfile.read(root.resolve(LatencyProfile.FILE_NAME));
+        assertThat(latencies.histogram("GET /customers/{id}").getTotalCount()).isPositive();
+        replay(IndexedStubReplayer.startWithProfile(root, FaultInjection.NONE));
+
+        Path snapshot = temporaryFolder.newFile("stubs.snapshot").toPath();
+        StubSnapshot.write(root, snapshot);
+        replay(IndexedStubReplayer.start(temporaryFolder.newFolder("replay").toPath(), StubSnapshot.open(snapshot)));
+    }
+
+    @Test
+    public void serveSyntheticCustomersFromRecordedTemplates() throws Exception {
+        Path root;
+        try (RecordingWorkspace recording = RecordingWorkspace.create(temporaryFolder.getRoot().toPath())) {
+            ParallelStubRecorder recorder = new ParallelStubRecorder(recording.root(), 4).start(port);
+            assertThat(recorder.record(SCENARIOS)).isEmpty();
+            recorder.stop();
+            root = recording.publish("synthetic");
+        }
+
+        WireMockServer synthetic = SyntheticCustomers.start(root, 42);
+        String id = UUID.randomUUID().toString();
+        try {
+            given().port(synthetic.port())
+                    .when().get("/customers/" + id)
+                    .then().statusCode(200)
+                    .body("id", equalTo(id))
+                    .body("firstName", startsWith("FIRST_NAME"));
+            given().port(synthetic.port())
+                    .when().get("/customers/" + id + "/addresses")
+                    .then().statusCode(200);
+            given().port(synthetic.port())
+                    .when().get("/customers/_bulk")
+                    .then().statusCode(404);
+        } finally {
+            WireMockRecordingInitializer.stop(synthetic);
+        }
+    }
+
+    private static void replay(WireMockServer replay) {
+        try {
+            for (RecordingScenario scenario : SCENARIOS) {
+                given().port(replay.port())
+                        .when().request(scenario.getMethod(), scenario.getPath())
+                        .then().statusCode(scenario.getExpectedStatus());
+            }
+            given().port(replay.port())
+                    .when().get("/customers/9")
+                    .then().statusCode(404);
+        } finally {
+            WireMockRecordingInitializer.stop(replay);
+        }
+    }
+}
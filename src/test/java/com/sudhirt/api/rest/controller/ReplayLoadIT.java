@@ -0,0 +1,67 @@
+package com.sudhirt.api.rest.controller;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.sudhirt.api.rest.controller.utils.IndexedStubReplayer;
+import com.sudhirt.api.rest.controller.utils.LoadGenerator;
+import com.sudhirt.api.rest.controller.utils.LoadReport;
+import com.sudhirt.api.rest.controller.utils.ParallelStubRecorder;
+import com.sudhirt.api.rest.controller.utils.RecordingWorkspace;
+import com.sudhirt.api.rest.controller.utils.WireMockRecordingInitializer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+
+import static com.sudhirt.api.rest.controller.ParallelWireMockGeneratorIT.SCENARIOS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load-tests the application and a WireMock virtual service recorded from it with the same scenarios, and reports
+ * both side by side. Tune with {@code -Dload.concurrency}, {@code -Dload.warmup} and {@code -Dload.duration} (seconds):
+ * <pre>
+ * mvn test -Dtest=ReplayLoadIT -Dload.concurrency=64 -Dload.duration=30
+ * </pre>
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"spring.jpa.show-sql=false", "logging.level.wiremock.org=INFO"})
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:sql/before.sql")
+@Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
+public class ReplayLoadIT {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup", 3));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration", 10));
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void compareApplicationWithVirtualService() throws Exception {
+        try (RecordingWorkspace workspace = RecordingWorkspace.create();
+             LoadGenerator loadGenerator = new LoadGenerator(CONCURRENCY)) {
+            ParallelStubRecorder recorder = new ParallelStubRecorder(workspace.root(), CONCURRENCY).start(port);
+            assertThat(recorder.record(SCENARIOS)).isEmpty();
+            recorder.stop();
+
+            LoadReport application = loadGenerator.run("application", port, SCENARIOS, WARMUP, DURATION);
+            WireMockServer virtualService = IndexedStubReplayer.start(workspace.root());
+            LoadReport replay;
+            try {
+                replay = loadGenerator.run("wiremock", virtualService.port(), SCENARIOS, WARMUP, DURATION);
+            } finally {
+                WireMockRecordingInitializer.stop(virtualService);
+            }
+
+            log.info("{} clients, {}s per target\n{}", CONCURRENCY, DURATION.getSeconds(), LoadReport.table(application, replay));
+            assertThat(application.getErrors()).isZero();
+            assertThat(replay.getErrors()).isZero();
+            assertThat(replay.getRequests()).isPositive();
+        }
+    }
+}
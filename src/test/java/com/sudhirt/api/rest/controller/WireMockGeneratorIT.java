@@ -1,6 +1,7 @@
 package com.sudhirt.api.rest.controller;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.sudhirt.api.rest.controller.utils.RecordingWorkspace;
 import com.sudhirt.api.rest.controller.utils.WireMockRecordingInitializer;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -21,131 +22,138 @@ import static io.restassured.RestAssured.given;
 @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
 public class WireMockGeneratorIT {
 
+    private static RecordingWorkspace workspace;
     private static WireMockServer wireMockServer;
 
     @LocalServerPort
     private int port;
 
     @AfterClass
-    public static void teardown() {
-        WireMockRecordingInitializer.teardown(wireMockServer);
+    public static void teardown() throws IOException {
+        try {
+            WireMockRecordingInitializer.teardown(wireMockServer);
+            workspace.publish(WireMockGeneratorIT.class.getSimpleName());
+        } finally {
+            workspace.close();
+        }
     }
 
     @Before
     public void initialize() throws IOException {
         if (wireMockServer == null) {
-            wireMockServer = WireMockRecordingInitializer.initialize(port);
+            workspace = RecordingWorkspace.create();
+            wireMockServer = WireMockRecordingInitializer.initialize(port, workspace);
         }
     }
 
     @Test
     public void getCustomers() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer1() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/1")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer1Addresses() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/1/addresses")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer1Address1() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/1/addresses/1")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer1Address2() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/1/addresses/2")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer1Address3() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/1/addresses/3")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer2() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/2")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer2Addresses() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/2/addresses")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer2Address1() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/2/addresses/4")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer3() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/3")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer3Addresses() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/3/addresses")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer3Address1() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/3/addresses/5")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer4Addresses() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/4/addresses")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer4Address1() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/4/addresses/6")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer5Addresses() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/4/addresses")
                 .then().statusCode(200);
     }
 
     @Test
     public void getCustomer5Address1() {
-        given().port(port + 1)
+        given().port(wireMockServer.port())
                 .when().get("/customers/5/addresses/1")
                 .then().statusCode(404);
     }
@@ -0,0 +1,173 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.StubMappingTransformer;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores response bodies in {@code __files} under the SHA-256 of their content, so a body recorded by many stubs is
+ * kept once and every stub refers to it through {@code bodyFileName}.
+ * <p>
+ * Registered as a recording transformer it externalises the bodies of freshly recorded stubs;
+ * {@link #rewrite(Path)} brings an existing recording directory into the same layout.
+ */
+public class ContentAddressedBodies extends StubMappingTransformer {
+
+    public static final String NAME = "content-addressed-bodies";
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}\\.[a-z]+");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Override
+    public StubMapping transform(StubMapping stubMapping, FileSource files, Parameters parameters) {
+        try {
+            ObjectNode stub = (ObjectNode) OBJECT_MAPPER.readTree(StubMapping.buildJsonStringFor(stubMapping));
+            return externalise(stub, Paths.get(files.getPath()), null)
+                    ? StubMapping.buildFrom(OBJECT_MAPPER.writeValueAsString(stub))
+                    : stubMapping;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Moves the inline and file bodies of every stub under {@code root/mappings} into content-addressed files and
+     * deletes body files no stub refers to any more.
+     *
+     * @return the number of distinct body files referenced after the rewrite
+     */
+    public static int rewrite(Path root) throws IOException {
+        Path files = Files.createDirectories(root.resolve("__files"));
+        Set<String> replaced = new HashSet<>();
+        Set<String> referenced = new HashSet<>();
+        List<Path> mappings;
+        try (Stream<Path> list = Files.list(root.resolve("mappings"))) {
+            mappings = list.filter(p -> p.toString().endsWith(".json")).collect(Collectors.toList());
+        }
+        for (Path mapping : mappings) {
+            ObjectNode stub = (ObjectNode) OBJECT_MAPPER.readTree(mapping.toFile());
+            if (externalise(stub, files, replaced)) {
+                Path rewritten = Files.createTempFile(mapping.getParent(), "rewrite", ".tmp");
+                OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(rewritten.toFile(), stub);
+                Files.move(rewritten, mapping, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            JsonNode bodyFileName = stub.path("response").path("bodyFileName");
+            if (bodyFileName.isTextual()) {
+                referenced.add(bodyFileName.asText());
+            }
+        }
+        replaced.removeAll(referenced);
+        for (String unused : replaced) {
+            Files.deleteIfExists(files.resolve(unused));
+        }
+        return referenced.size();
+    }
+
+    /**
+     * @param replaced collects the names of non content-addressed body files the stub referred to, may be {@code null}
+     * @return whether the stub was changed
+     */
+    private static boolean externalise(ObjectNode stub, Path files, Set<String> replaced) throws IOException {
+        JsonNode node = stub.get("response");
+        if (!(node instanceof ObjectNode)) {
+            return false;
+        }
+        ObjectNode response = (ObjectNode) node;
+        byte[] body;
+        if (response.hasNonNull("bodyFileName")) {
+            String fileName = response.get("bodyFileName").asText();
+            if (CONTENT_ADDRESSED.matcher(fileName).matches()) {
+                return false;
+            }
+            body = Files.readAllBytes(files.resolve(fileName));
+            if (replaced != null) {
+                replaced.add(fileName);
+            }
+        } else if (response.hasNonNull("base64Body")) {
+            body = Base64.getDecoder().decode(response.get("base64Body").asText());
+        } else if (response.hasNonNull("jsonBody")) {
+            body = OBJECT_MAPPER.writeValueAsBytes(response.get("jsonBody"));
+        } else if (response.hasNonNull("body")) {
+            body = response.get("body").asText().getBytes(StandardCharsets.UTF_8);
+        } else {
+            return false;
+        }
+        response.remove("body");
+        response.remove("base64Body");
+        response.remove("jsonBody");
+        response.put("bodyFileName", store(files, body, extensionOf(response)));
+        return true;
+    }
+
+    private static String store(Path files, byte[] body, String extension) throws IOException {
+        String fileName = sha256(body) + extension;
+        Path file = files.resolve(fileName);
+        if (Files.exists(file)) {
+            return fileName;
+        }
+        Path partial = Files.createTempFile(files, fileName, ".tmp");
+        Files.write(partial, body);
+        try {
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(partial);
+        }
+        return fileName;
+    }
+
+    private static String extensionOf(ObjectNode response) {
+        String contentType = "";
+        Iterator<Map.Entry<String, JsonNode>> headers = response.path("headers").fields();
+        while (headers.hasNext()) {
+            Map.Entry<String, JsonNode> header = headers.next();
+            if ("content-type".equalsIgnoreCase(header.getKey())) {
+                contentType = header.getValue().isArray() ? header.getValue().path(0).asText() : header.getValue().asText();
+            }
+        }
+        if (contentType.contains("json")) {
+            return ".json";
+        }
+        if (contentType.contains("xml")) {
+            return ".xml";
+        }
+        return contentType.startsWith("text/") ? ".txt" : ".bin";
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(body)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
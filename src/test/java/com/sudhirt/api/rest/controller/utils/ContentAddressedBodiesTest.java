@@ -0,0 +1,68 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContentAddressedBodiesTest {
+
+    private static final String CUSTOMER = "{\"id\":\"1\",\"firstName\":\"FIRST_NAME1\"}";
+
+    @Rule
+    public TemporaryFolder workspace = new TemporaryFolder();
+
+    private Path root;
+
+    @Before
+    public void setup() throws IOException {
+        root = workspace.getRoot().toPath();
+        Files.createDirectories(root.resolve("mappings"));
+        Files.createDirectories(root.resolve("__files"));
+    }
+
+    @Test
+    public void rewriteSharesIdenticalBodies() throws IOException {
+        write("customer.json", get(urlEqualTo("/customers/1")).willReturn(okJson(CUSTOMER)).build());
+        write("customer-copy.json", get(urlEqualTo("/customers/1?view=full")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json").withBodyFile("customer-copy-body.json")).build());
+        write("customers.json", get(urlEqualTo("/customers")).willReturn(okJson("[" + CUSTOMER + "]")).build());
+        write("deleted.json", delete(urlEqualTo("/customers/1")).willReturn(noContent()).build());
+        Files.write(root.resolve("__files").resolve("customer-copy-body.json"), CUSTOMER.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(ContentAddressedBodies.rewrite(root)).isEqualTo(2);
+
+        StubMapping customer = read("customer.json");
+        StubMapping copy = read("customer-copy.json");
+        assertThat(customer.getResponse().getBody()).isNull();
+        assertThat(customer.getResponse().getBodyFileName()).matches("[0-9a-f]{64}\\.json").isEqualTo(copy.getResponse().getBodyFileName());
+        assertThat(read("customers.json").getResponse().getBodyFileName()).isNotEqualTo(customer.getResponse().getBodyFileName());
+        assertThat(read("deleted.json").getResponse().getBodyFileName()).isNull();
+        assertThat(new String(Files.readAllBytes(root.resolve("__files").resolve(customer.getResponse().getBodyFileName())), StandardCharsets.UTF_8))
+                .isEqualTo(CUSTOMER);
+        try (Stream<Path> files = Files.list(root.resolve("__files"))) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+
+        assertThat(ContentAddressedBodies.rewrite(root)).isEqualTo(2);
+        assertThat(read("customer.json").getResponse().getBodyFileName()).isEqualTo(customer.getResponse().getBodyFileName());
+    }
+
+    private void write(String fileName, StubMapping stub) throws IOException {
+        Files.write(root.resolve("mappings").resolve(fileName), StubMapping.buildJsonStringFor(stub).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private StubMapping read(String fileName) throws IOException {
+        return StubMapping.buildFrom(new String(Files.readAllBytes(root.resolve("mappings").resolve(fileName)), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,30 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import lombok.Value;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Share of replayed responses to replace with a network fault.
+ */
+@Value
+public class FaultInjection {
+
+    public static final FaultInjection NONE = new FaultInjection(0d, Fault.CONNECTION_RESET_BY_PEER);
+
+    private final double rate;
+    private final Fault fault;
+
+    public FaultInjection(double rate, Fault fault) {
+        if (rate < 0d || rate > 1d) {
+            throw new IllegalArgumentException("Fault rate must be between 0 and 1, was " + rate);
+        }
+        this.rate = rate;
+        this.fault = fault;
+    }
+
+    public boolean shouldInject() {
+        return rate > 0d && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
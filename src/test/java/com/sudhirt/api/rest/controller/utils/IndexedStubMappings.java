@@ -0,0 +1,202 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stub lookup for large recorded stub sets, picking the same stub WireMock's linear scan would: lowest priority
+ * value first, most recently added among equals.
+ * <ul>
+ * <li>stubs matching only a method and an exact URL, which is everything the recorder writes, are found by hash</li>
+ * <li>stubs on an exact path or a path template are narrowed down through a {@link StubPathTrie} and then fully
+ * matched</li>
+ * <li>anything else is fully matched against every request</li>
+ * </ul>
+ * Stubs are added once and the index is then read concurrently; stubs added lazily may be loaded more than once
+ * under contention. Scenario state and custom matchers are not
+ * supported.
+ */
+public class IndexedStubMappings {
+
+    private static final Pattern LITERAL_SEGMENT = Pattern.compile("[A-Za-z0-9_~-]*");
+    private static final Pattern TEMPLATE_SEGMENT = Pattern.compile("(\\[\\^/\\]|\\[[^\\]/^\\\\]+\\]|\\\\d|\\\\w)\\+");
+
+    private final Map<String, IndexedStub> exact = new HashMap<>();
+    private final StubPathTrie<IndexedStub> templates = new StubPathTrie<>();
+    private final List<IndexedStub> fallback = new ArrayList<>();
+    private long insertionIndex;
+
+    /**
+     * Reads every {@code *.json} stub file of a WireMock {@code mappings} directory.
+     */
+    public static IndexedStubMappings load(Path mappingsDirectory) throws IOException {
+        IndexedStubMappings mappings = new IndexedStubMappings();
+        try (Stream<Path> files = Files.list(mappingsDirectory)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList())) {
+                mappings.add(StubMapping.buildFrom(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+            }
+        }
+        return mappings;
+    }
+
+    public void add(StubMapping stub) {
+        IndexedStub indexed = new IndexedStub(() -> stub, stub.getPriority(), insertionIndex++);
+        RequestPattern request = stub.getRequest();
+        if (isMethodAndUrlOnly(stub)) {
+            exact.merge(keyOf(request.getMethod(), request.getUrl()), indexed, IndexedStub::better);
+            return;
+        }
+        List<String> segments = templateOf(request);
+        if (segments != null) {
+            templates.add(segments, indexed);
+        } else {
+            fallback.add(indexed);
+        }
+    }
+
+    /**
+     * Adds a stub matching only {@code method} and {@code url} whose definition is only loaded once a request needs it.
+     */
+    public void addLazily(RequestMethod method, String url, Integer priority, Supplier<StubMapping> loader) {
+        exact.merge(keyOf(method, url), new IndexedStub(loader, priority, insertionIndex++), IndexedStub::better);
+    }
+
+    static boolean isMethodAndUrlOnly(StubMapping stub) {
+        RequestPattern request = stub.getRequest();
+        return request.getUrl() != null
+                && !RequestMethod.ANY.equals(request.getMethod())
+                && isEmpty(request.getHeaders())
+                && isEmpty(request.getQueryParameters())
+                && isEmpty(request.getCookies())
+                && request.getBasicAuthCredentials() == null
+                && isEmpty(request.getBodyPatterns())
+                && isEmpty(request.getMultipartPatterns())
+                && !request.hasCustomMatcher()
+                && !stub.isInScenario();
+    }
+
+    public int size() {
+        return (int) insertionIndex;
+    }
+
+    /**
+     * @return the stub answering the request, or {@code null} when none matches
+     */
+    public StubMapping find(Request request) {
+        IndexedStub best = exact.get(keyOf(request.getMethod(), request.getUrl()));
+        IndexedStub[] candidate = {best};
+        templates.collect(pathOf(request.getUrl()), stub -> {
+            if (stub.isBetterThan(candidate[0]) && stub.matches(request)) {
+                candidate[0] = stub;
+            }
+        });
+        best = candidate[0];
+        for (IndexedStub stub : fallback) {
+            if (stub.isBetterThan(best) && stub.matches(request)) {
+                best = stub;
+            }
+        }
+        return best == null ? null : best.stub();
+    }
+
+    /**
+     * @return the path segments of a URL, path or path template, {@code null} for template segments, or {@code null}
+     * when the URL cannot be expressed segment by segment
+     */
+    private static List<String> templateOf(RequestPattern request) {
+        if (request.hasCustomMatcher()) {
+            return null;
+        }
+        if (request.getUrl() != null) {
+            return Arrays.asList(StubPathTrie.segmentsOf(pathOf(request.getUrl())));
+        }
+        if (request.getUrlPath() != null) {
+            return Arrays.asList(StubPathTrie.segmentsOf(request.getUrlPath()));
+        }
+        String template = request.getUrlPathPattern();
+        if (template == null || !template.startsWith("/")) {
+            return null;
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : StubPathTrie.segmentsOf(template)) {
+            if (LITERAL_SEGMENT.matcher(segment).matches()) {
+                segments.add(segment);
+            } else if (TEMPLATE_SEGMENT.matcher(segment).matches()) {
+                segments.add(null);
+            } else {
+                return null;
+            }
+        }
+        return segments;
+    }
+
+    private static String keyOf(RequestMethod method, String url) {
+        return method.getName() + ' ' + url;
+    }
+
+    private static String pathOf(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    private static boolean isEmpty(Map<?, ?> map) {
+        return map == null || map.isEmpty();
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+    private static class IndexedStub {
+
+        private final Supplier<StubMapping> loader;
+        private final int priority;
+        private final long insertionIndex;
+        private volatile StubMapping stub;
+
+        private IndexedStub(Supplier<StubMapping> loader, Integer priority, long insertionIndex) {
+            this.loader = loader;
+            this.priority = priority == null ? StubMapping.DEFAULT_PRIORITY : priority;
+            this.insertionIndex = insertionIndex;
+        }
+
+        private StubMapping stub() {
+            StubMapping loaded = stub;
+            if (loaded == null) {
+                loaded = loader.get();
+                stub = loaded;
+            }
+            return loaded;
+        }
+
+        private static IndexedStub better(IndexedStub a, IndexedStub b) {
+            return b.isBetterThan(a) ? b : a;
+        }
+
+        private boolean isBetterThan(IndexedStub other) {
+            return other == null
+                    || priority < other.priority
+                    || priority == other.priority && insertionIndex > other.insertionIndex;
+        }
+
+        private boolean matches(Request request) {
+            return stub().getRequest().match(request).isExactMatch();
+        }
+    }
+}
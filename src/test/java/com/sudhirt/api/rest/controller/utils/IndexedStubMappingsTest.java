@@ -0,0 +1,79 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexedStubMappingsTest {
+
+    private IndexedStubMappings stubs;
+
+    @Before
+    public void setup() {
+        stubs = new IndexedStubMappings();
+    }
+
+    @Test
+    public void findByMethodAndUrl() {
+        StubMapping customer = add(get(urlEqualTo("/customers/1")));
+        add(post(urlEqualTo("/customers/1")));
+
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/1"))).isSameAs(customer);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/2"))).isNull();
+        assertThat(stubs.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void findByPathTemplate() {
+        StubMapping address = add(get(urlPathMatching("/customers/[^/]+/addresses/[0-9]+")));
+
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/7/addresses/12?view=full"))).isSameAs(address);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/7/addresses/main"))).isNull();
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/7/addresses"))).isNull();
+        assertThat(stubs.find(request(RequestMethod.DELETE, "/customers/7/addresses/12"))).isNull();
+    }
+
+    @Test
+    public void findComplexStubByFullMatch() {
+        StubMapping ndjson = add(get(urlMatching("/customers(\\?.*)?")).withHeader("Accept", equalTo("application/x-ndjson")));
+
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers?limit=5", new HttpHeader("Accept", "application/x-ndjson")))).isSameAs(ndjson);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers?limit=5"))).isNull();
+    }
+
+    @Test
+    public void preferHigherPriorityThenMostRecent() {
+        add(get(urlEqualTo("/customers/1")));
+        StubMapping recent = add(get(urlEqualTo("/customers/1")));
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/1"))).isSameAs(recent);
+
+        StubMapping template = add(get(urlPathMatching("/customers/[^/]+")));
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/1"))).isSameAs(template);
+
+        StubMapping prioritised = add(get(urlEqualTo("/customers/1")).atPriority(1));
+        add(get(urlPathMatching("/customers/[^/]+")));
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/1"))).isSameAs(prioritised);
+    }
+
+    private StubMapping add(MappingBuilder mappingBuilder) {
+        StubMapping stub = mappingBuilder.willReturn(aResponse()).build();
+        stubs.add(stub);
+        return stub;
+    }
+
+    private static LoggedRequest request(RequestMethod method, String url, HttpHeader... headers) {
+        return new LoggedRequest(url, "http://localhost" + url, method, "127.0.0.1", new HttpHeaders(headers),
+                Collections.emptyMap(), false, new Date(), new byte[0], Collections.emptyList());
+    }
+}
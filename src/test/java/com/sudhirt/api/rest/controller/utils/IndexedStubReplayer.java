@@ -0,0 +1,121 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.standalone.MappingsSource;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+
+/**
+ * Replays recorded stubs through an {@link IndexedStubMappings} instead of WireMock's own stub list.
+ * <p>
+ * WireMock only holds a single catch-all stub, so its linear scan is constant time, and this transformer swaps in the
+ * response of the indexed stub matching the request. Body files keep being served from the {@code __files} directory.
+ * Responses can be delayed following a recorded {@link LatencyProfile} and replaced by faults at a given rate.
+ */
+public class IndexedStubReplayer extends ResponseDefinitionTransformer {
+
+    private final IndexedStubMappings stubs;
+    private final LatencyProfile latencies;
+    private final FaultInjection faults;
+
+    public IndexedStubReplayer(IndexedStubMappings stubs, LatencyProfile latencies, FaultInjection faults) {
+        this.stubs = stubs;
+        this.latencies = latencies;
+        this.faults = faults;
+    }
+
+    /**
+     * Starts a WireMock server on a dynamic port answering from the stubs recorded under {@code root}.
+     */
+    public static WireMockServer start(Path root) throws IOException {
+        return start(root, IndexedStubMappings.load(root.resolve("mappings")));
+    }
+
+    public static WireMockServer start(Path root, IndexedStubMappings stubs) {
+        return start(root, stubs, null, FaultInjection.NONE);
+    }
+
+    /**
+     * Starts a WireMock server on a dynamic port answering from the stubs recorded under {@code root}, delayed as
+     * recorded in its {@link LatencyProfile#FILE_NAME} and failing at the given rate.
+     */
+    public static WireMockServer startWithProfile(Path root, FaultInjection faults) throws IOException {
+        return start(root, IndexedStubMappings.load(root.resolve("mappings")), LatencyProfile.read(root.resolve(LatencyProfile.FILE_NAME)), faults);
+    }
+
+    /**
+     * @param latencies recorded latencies to delay responses by, {@code null} to answer immediately
+     */
+    public static WireMockServer start(Path root, IndexedStubMappings stubs, LatencyProfile latencies, FaultInjection faults) {
+        WireMockServer wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort()
+                .usingFilesUnderDirectory(root.toString())
+                .mappingSource(new NoMappingsSource())
+                // delays are served without holding a Jetty thread
+                .asynchronousResponseEnabled(latencies != null)
+                .extensions(new IndexedStubReplayer(stubs, latencies, faults)));
+        wireMockServer.start();
+        wireMockServer.stubFor(any(anyUrl()).willReturn(aResponse()));
+        return wireMockServer;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        StubMapping stub = stubs.find(request);
+        if (stub == null) {
+            return ResponseDefinition.notConfigured();
+        }
+        if (faults.shouldInject()) {
+            return ResponseDefinitionBuilder.like(stub.getResponse()).withFault(faults.getFault()).build();
+        }
+        long delay = latencies == null ? -1 : latencies.sampleMillis(request.getMethod().getName(), request.getUrl(), request.getHeader("Accept"));
+        return delay > 0
+                ? ResponseDefinitionBuilder.like(stub.getResponse()).withFixedDelay((int) delay).build()
+                : stub.getResponse();
+    }
+
+    @Override
+    public String getName() {
+        return "indexed-stubs";
+    }
+
+    /**
+     * Keeps WireMock from loading the mappings directory itself.
+     */
+    static class NoMappingsSource implements MappingsSource {
+
+        @Override
+        public void loadMappingsInto(StubMappings stubMappings) {
+        }
+
+        @Override
+        public void save(List<StubMapping> stubMappings) {
+        }
+
+        @Override
+        public void save(StubMapping stubMapping) {
+        }
+
+        @Override
+        public void remove(StubMapping stubMapping) {
+        }
+
+        @Override
+        public void removeAll() {
+        }
+    }
+}
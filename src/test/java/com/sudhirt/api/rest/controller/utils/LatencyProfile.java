@@ -0,0 +1,148 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+
+/**
+ * Per-endpoint latency distributions of a recorded service. While recording, latencies are added to one HdrHistogram
+ * per endpoint; on replay a delay is drawn by inverse transform sampling, so replayed delays follow the recorded
+ * percentiles rather than a single average.
+ * <p>
+ * Endpoints are request methods with their path reduced to a template, replacing numeric and UUID segments by
+ * {@code {id}}: {@code GET /customers/1/addresses/2} is recorded as {@code GET /customers/{id}/addresses/{id}}, while
+ * {@code /customers/_bulk} keeps its own endpoint. Query parameters that change the representation, and an
+ * {@code Accept} header asking for anything but JSON, are kept as part of the endpoint since they answer with
+ * different payloads: {@code GET /customers?expand=addresses} and {@code GET /customers [application/x-ndjson]} are
+ * recorded apart from {@code GET /customers}. Paging parameters are dropped.
+ */
+public class LatencyProfile {
+
+    public static final String FILE_NAME = "latency-profile.json";
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Pattern ID = Pattern.compile("\\d+|\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}");
+    private static final Set<String> REPRESENTATION_PARAMETERS = Collections.singleton("expand");
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public static String endpointOf(String method, String url) {
+        return endpointOf(method, url, null);
+    }
+
+    /**
+     * @param accept the request's {@code Accept} header, {@code null} if it sent none
+     */
+    public static String endpointOf(String method, String url, String accept) {
+        int query = url.indexOf('?');
+        StringBuilder endpoint = new StringBuilder(method).append(' ');
+        for (String segment : StubPathTrie.segmentsOf(query < 0 ? url : url.substring(0, query))) {
+            endpoint.append('/').append(ID.matcher(segment).matches() ? "{id}" : segment);
+        }
+        if (query >= 0) {
+            String parameters = Arrays.stream(url.substring(query + 1).split("&"))
+                    .filter(parameter -> REPRESENTATION_PARAMETERS.contains(parameter.split("=", 2)[0]))
+                    .sorted()
+                    .collect(Collectors.joining("&"));
+            if (!parameters.isEmpty()) {
+                endpoint.append('?').append(parameters);
+            }
+        }
+        if (accept != null && !accept.contains("*/*") && !accept.contains(MediaType.APPLICATION_JSON_VALUE)) {
+            endpoint.append(" [").append(accept).append(']');
+        }
+        return endpoint.toString();
+    }
+
+    /**
+     * Adds a latency observed for a request, safe to call from many threads.
+     */
+    public void record(String method, String url, long nanos) {
+        recorders.computeIfAbsent(endpointOf(method, url), endpoint -> new Recorder(HIGHEST_TRACKABLE_NANOS, 2))
+                .recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    /**
+     * @return a delay drawn from the endpoint's recorded distribution, or {@code -1} for an endpoint never recorded
+     */
+    public long sampleMillis(String method, String url) {
+        return sampleMillis(method, url, null);
+    }
+
+    /**
+     * @return a delay drawn from the distribution of the endpoint answering with the accepted content, or {@code -1}
+     * for an endpoint never recorded
+     */
+    public long sampleMillis(String method, String url, String accept) {
+        Histogram histogram = histograms.get(endpointOf(method, url, accept));
+        if (histogram == null || histogram.getTotalCount() == 0) {
+            return -1;
+        }
+        double percentile = ThreadLocalRandom.current().nextDouble(100);
+        return TimeUnit.NANOSECONDS.toMillis(histogram.getValueAtPercentile(percentile));
+    }
+
+    public Histogram histogram(String endpoint) {
+        return histograms.get(endpoint);
+    }
+
+    /**
+     * Moves everything recorded so far into the sampled distributions.
+     */
+    public LatencyProfile snapshot() {
+        recorders.forEach((endpoint, recorder) -> histograms.merge(endpoint, recorder.getIntervalHistogram(), (current, recorded) -> {
+            current.add(recorded);
+            return current;
+        }));
+        return this;
+    }
+
+    /**
+     * Writes the distributions as a JSON object of endpoint to base64 compressed HdrHistogram.
+     */
+    public void write(Path file) throws IOException {
+        snapshot();
+        Map<String, String> encoded = new TreeMap<>();
+        histograms.forEach((endpoint, histogram) -> {
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            encoded.put(endpoint, Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        });
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), encoded);
+    }
+
+    public static LatencyProfile read(Path file) throws IOException {
+        Map<String, String> encoded = OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<Map<String, String>>() {
+        });
+        LatencyProfile profile = new LatencyProfile();
+        for (Map.Entry<String, String> entry : encoded.entrySet()) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(entry.getValue()));
+                profile.histograms.put(entry.getKey(), Histogram.decodeFromCompressedByteBuffer(buffer, 0));
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt latency histogram for " + entry.getKey(), e);
+            }
+        }
+        return profile;
+    }
+}
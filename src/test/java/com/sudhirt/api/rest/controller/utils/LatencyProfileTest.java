@@ -0,0 +1,78 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LatencyProfileTest {
+
+    @Rule
+    public TemporaryFolder workspace = new TemporaryFolder();
+
+    @Test
+    public void endpointOf() {
+        assertThat(LatencyProfile.endpointOf("GET", "/customers")).isEqualTo("GET /customers");
+        assertThat(LatencyProfile.endpointOf("GET", "/customers/1?page=2")).isEqualTo("GET /customers/{id}");
+        assertThat(LatencyProfile.endpointOf("DELETE", "/customers/1/addresses/2")).isEqualTo("DELETE /customers/{id}/addresses/{id}");
+        assertThat(LatencyProfile.endpointOf("GET", "/customers/0b4a3f1c-5d2e-4f6a-8b7c-9d0e1f2a3b4c/addresses"))
+                .isEqualTo("GET /customers/{id}/addresses");
+    }
+
+    @Test
+    public void endpointOfKeepsNamedSegments() {
+        assertThat(LatencyProfile.endpointOf("POST", "/customers/_bulk")).isEqualTo("POST /customers/_bulk");
+        assertThat(LatencyProfile.endpointOf("POST", "/customers/1")).isEqualTo("POST /customers/{id}");
+    }
+
+    @Test
+    public void endpointOfKeepsRepresentation() {
+        assertThat(LatencyProfile.endpointOf("GET", "/customers?limit=10&expand=addresses&cursor=5"))
+                .isEqualTo("GET /customers?expand=addresses");
+        assertThat(LatencyProfile.endpointOf("GET", "/customers?limit=10")).isEqualTo("GET /customers");
+        assertThat(LatencyProfile.endpointOf("GET", "/customers", "application/x-ndjson"))
+                .isEqualTo("GET /customers [application/x-ndjson]");
+        assertThat(LatencyProfile.endpointOf("GET", "/customers", "application/json")).isEqualTo("GET /customers");
+        assertThat(LatencyProfile.endpointOf("GET", "/customers", "*/*")).isEqualTo("GET /customers");
+    }
+
+    @Test
+    public void sampleFollowsRecordedRange() {
+        LatencyProfile profile = new LatencyProfile();
+        for (int millis = 10; millis <= 50; millis++) {
+            profile.record("GET", "/customers/" + millis, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        profile.snapshot();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(profile.sampleMillis("GET", "/customers/7")).isBetween(10L, 51L);
+        }
+        assertThat(profile.sampleMillis("GET", "/customers")).isEqualTo(-1);
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        LatencyProfile profile = new LatencyProfile();
+        profile.record("GET", "/customers", TimeUnit.MILLISECONDS.toNanos(5));
+        profile.record("GET", "/customers", TimeUnit.MILLISECONDS.toNanos(20));
+        Path file = workspace.getRoot().toPath().resolve(LatencyProfile.FILE_NAME);
+        profile.write(file);
+
+        LatencyProfile read = LatencyProfile.read(file);
+        assertThat(read.histogram("GET /customers").getTotalCount()).isEqualTo(2);
+        assertThat(read.histogram("GET /customers").getMaxValue()).isEqualTo(profile.histogram("GET /customers").getMaxValue());
+    }
+
+    @Test
+    public void faultRateOutOfRange() {
+        assertThatThrownBy(() -> new FaultInjection(1.5, FaultInjection.NONE.getFault())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(new FaultInjection(1, FaultInjection.NONE.getFault()).shouldInject()).isTrue();
+        assertThat(FaultInjection.NONE.shouldInject()).isFalse();
+    }
+}
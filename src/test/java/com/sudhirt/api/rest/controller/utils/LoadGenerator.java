@@ -0,0 +1,105 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: a fixed number of clients replay a list of scenarios back to back against a target
+ * for a given time, after an unmeasured warm-up of the same shape.
+ * <p>
+ * Latencies of successful requests go to an HdrHistogram {@link Recorder}, which takes concurrent writers without
+ * locking. Requests failing or answering with an unexpected status are only counted as errors.
+ */
+public class LoadGenerator implements Closeable {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int concurrency;
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService executor;
+
+    public LoadGenerator(int concurrency) {
+        this.concurrency = concurrency;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(concurrency);
+        connectionManager.setDefaultMaxPerRoute(concurrency);
+        this.httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+        this.executor = Executors.newFixedThreadPool(concurrency);
+    }
+
+    public LoadReport run(String target, int port, List<RecordingScenario> scenarios, Duration warmup, Duration duration)
+            throws InterruptedException {
+        String baseUri = "http://localhost:" + port;
+        drive(baseUri, scenarios, warmup, new Recorder(HIGHEST_TRACKABLE_NANOS, 3), new LongAdder());
+
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        drive(baseUri, scenarios, duration, recorder, errors);
+        long elapsed = System.nanoTime() - start;
+        Histogram latencies = recorder.getIntervalHistogram();
+        return new LoadReport(target, latencies.getTotalCount() + errors.sum(), errors.sum(), elapsed, latencies);
+    }
+
+    private void drive(String baseUri, List<RecordingScenario> scenarios, Duration duration,
+                       Recorder recorder, LongAdder errors) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<?>> clients = new ArrayList<>(concurrency);
+        for (int client = 0; client < concurrency; client++) {
+            int offset = client;
+            clients.add(executor.submit(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    RecordingScenario scenario = scenarios.get(i % scenarios.size());
+                    HttpUriRequest request = RequestBuilder.create(scenario.getMethod()).setUri(baseUri + scenario.getPath()).build();
+                    long sent = System.nanoTime();
+                    if (execute(request, scenario.getExpectedStatus())) {
+                        recorder.recordValue(Math.min(System.nanoTime() - sent, HIGHEST_TRACKABLE_NANOS));
+                    } else {
+                        errors.increment();
+                    }
+                }
+            }));
+        }
+        for (Future<?> client : clients) {
+            try {
+                client.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private boolean execute(HttpUriRequest request, int expectedStatus) {
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() == expectedStatus;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        httpClient.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one {@link LoadGenerator} run: request and error counts over the measured period, and the latency
+ * histogram of the successful requests in nanoseconds.
+ */
+@Value
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String target;
+    private final long requests;
+    private final long errors;
+    private final long elapsedNanos;
+    private final Histogram latencies;
+
+    public double throughput() {
+        return requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return the latency at the given percentile in milliseconds
+     */
+    public double percentile(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000_000d;
+    }
+
+    /**
+     * Formats reports side by side, one row per target.
+     */
+    public static String table(LoadReport... reports) {
+        StringBuilder table = new StringBuilder(String.format("%-12s %10s %9s %9s %9s %9s %9s %8s%n",
+                "target", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors"));
+        for (LoadReport report : reports) {
+            table.append(String.format("%-12s %10.0f", report.target, report.throughput()));
+            for (double percentile : PERCENTILES) {
+                table.append(String.format(" %9.3f", report.percentile(percentile)));
+            }
+            table.append(String.format(" %9.3f %8d%n", report.latencies.getMaxValue() / 1_000_000d, report.errors));
+        }
+        return table.toString();
+    }
+}
@@ -0,0 +1,171 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.recordSpec;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Records stubs for many scenarios at once. A WireMock proxy is put in front of the application and the scenarios are
+ * driven through it by a fixed pool of clients sharing one pooled HTTP connection manager.
+ * <p>
+ * Captured traffic lives in WireMock's request journal, which is safe for concurrent writers, and is turned into stubs
+ * only once in {@link #stop()}. Repeated requests are collapsed into a single stub there, and response bodies are
+ * stored once per distinct content through {@link ContentAddressedBodies}. The latency of every request goes into a
+ * {@link LatencyProfile} for replay. Seen through the proxy it includes a round trip to WireMock that the replaying
+ * server adds on its own, so the median round trip to a stub answered by the proxy itself is measured before
+ * recording and taken off every latency.
+ */
+public class ParallelStubRecorder implements Closeable {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+    private static final String BASELINE_PATH = "/__latency-baseline";
+    private static final int BASELINE_REQUESTS = 100;
+
+    private final Path root;
+    private final WireMockServer wireMockServer;
+    private final LatencyProfile latencies = new LatencyProfile();
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService executor;
+    private long baselineNanos;
+
+    public ParallelStubRecorder(Path root, int clients) throws IOException {
+        this.root = root;
+        Files.createDirectories(root.resolve("mappings"));
+        Files.createDirectories(root.resolve("__files"));
+        this.wireMockServer = new WireMockServer(options().dynamicPort()
+                .containerThreads(Math.max(clients * 2, 10))
+                .usingFilesUnderDirectory(root.toString())
+                .extensions(new ContentAddressedBodies()));
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(clients);
+        connectionManager.setDefaultMaxPerRoute(clients);
+        this.httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+        this.executor = Executors.newFixedThreadPool(clients);
+    }
+
+    public ParallelStubRecorder start(int targetPort) throws IOException {
+        wireMockServer.start();
+        baselineNanos = measureBaseline();
+        wireMockServer.startRecording(recordSpec()
+                .forTarget("http://localhost:" + targetPort)
+                .makeStubsPersistent(true)
+                .ignoreRepeatRequests()
+                .extractTextBodiesOver(Long.MAX_VALUE)
+                .extractBinaryBodiesOver(Long.MAX_VALUE)
+                .transformers(ContentAddressedBodies.NAME));
+        return this;
+    }
+
+    public int port() {
+        return wireMockServer.port();
+    }
+
+    /**
+     * Replays all scenarios concurrently and waits for them to complete.
+     *
+     * @return a description of every scenario that failed or answered with an unexpected status
+     */
+    public List<String> record(Collection<RecordingScenario> scenarios) throws InterruptedException {
+        List<Callable<String>> calls = scenarios.stream()
+                .map(scenario -> (Callable<String>) () -> replay(scenario))
+                .collect(Collectors.toList());
+        List<String> failures = new ArrayList<>();
+        for (Future<String> future : executor.invokeAll(calls)) {
+            try {
+                String failure = future.get();
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            } catch (ExecutionException e) {
+                failures.add(e.getCause().toString());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Stops recording, writes the de-duplicated stubs under {@code mappings} and the latencies seen by the clients to
+     * {@link LatencyProfile#FILE_NAME}, and shuts everything down.
+     */
+    public List<StubMapping> stop() throws IOException {
+        // the recorder returns a lazy view applying the transformers again on every access
+        List<StubMapping> stubs = new ArrayList<>(wireMockServer.stopRecording().getStubMappings());
+        close();
+        latencies.write(root.resolve(LatencyProfile.FILE_NAME));
+        return stubs;
+    }
+
+    /**
+     * Shuts the client pool and the proxy down, returning only once neither accepts any more work.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        httpClient.close();
+        WireMockRecordingInitializer.stop(wireMockServer);
+    }
+
+    private long measureBaseline() throws IOException {
+        StubMapping baseline = wireMockServer.stubFor(get(urlEqualTo(BASELINE_PATH)).willReturn(aResponse().withStatus(204)));
+        long[] nanos = new long[BASELINE_REQUESTS];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            try (CloseableHttpResponse response = httpClient.execute(new HttpGet("http://localhost:" + port() + BASELINE_PATH))) {
+                EntityUtils.consume(response.getEntity());
+            }
+            nanos[i] = System.nanoTime() - start;
+        }
+        wireMockServer.removeStub(baseline);
+        wireMockServer.resetRequests();
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+
+    private String replay(RecordingScenario scenario) throws IOException {
+        String uri = "http://localhost:" + port() + scenario.getPath();
+        long start = System.nanoTime();
+        try (CloseableHttpResponse response = httpClient.execute(RequestBuilder.create(scenario.getMethod()).setUri(uri).build())) {
+            EntityUtils.consume(response.getEntity());
+            latencies.record(scenario.getMethod(), scenario.getPath(), Math.max(0, System.nanoTime() - start - baselineNanos));
+            int status = response.getStatusLine().getStatusCode();
+            return status == scenario.getExpectedStatus() ? null
+                    : scenario + " answered " + status + ", expected " + scenario.getExpectedStatus();
+        }
+    }
+}
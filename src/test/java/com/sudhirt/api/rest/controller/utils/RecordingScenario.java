@@ -0,0 +1,23 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import lombok.Value;
+
+/**
+ * A single request replayed through the recording proxy together with the status it is expected to answer with.
+ */
+@Value
+public class RecordingScenario {
+
+    private final String method;
+    private final String path;
+    private final int expectedStatus;
+
+    public static RecordingScenario get(String path, int expectedStatus) {
+        return new RecordingScenario("GET", path, expectedStatus);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path;
+    }
+}
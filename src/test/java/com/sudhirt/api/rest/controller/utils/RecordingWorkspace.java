@@ -0,0 +1,167 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A private directory for one recording run, so that runs on the same machine never write into each other's
+ * {@code mappings} and {@code __files}.
+ * <p>
+ * Runs are created under {@code <base>/.runs} and only become visible once {@link #publish(String)} renames them to
+ * {@code <base>/<name>}, so readers never see a partly written recording. Directory renames work on every platform
+ * but cannot replace a non-empty directory: a previously published recording is first renamed into
+ * {@code <base>/.replaced}, leaving the name briefly absent, and only deleted once it has been replaced for
+ * {@link #REPLACED_RETENTION}, so readers still holding it can finish.
+ */
+public class RecordingWorkspace implements Closeable {
+
+    public static final String BASE_DIRECTORY_PROPERTY = "wiremock.recordings.dir";
+    public static final Duration REPLACED_RETENTION = Duration.ofMinutes(10);
+
+    private static final int MAX_PUBLISH_ATTEMPTS = 10;
+
+    private final Path base;
+    private final Path root;
+    private boolean finished;
+
+    private RecordingWorkspace(Path base, Path root) {
+        this.base = base;
+        this.root = root;
+    }
+
+    /**
+     * Creates a workspace under {@code wiremock.recordings.dir}, by default {@code wiremock-recordings} in
+     * {@code java.io.tmpdir}.
+     */
+    public static RecordingWorkspace create() throws IOException {
+        String base = System.getProperty(BASE_DIRECTORY_PROPERTY);
+        return create(base != null ? Paths.get(base) : Paths.get(System.getProperty("java.io.tmpdir"), "wiremock-recordings"));
+    }
+
+    public static RecordingWorkspace create(Path base) throws IOException {
+        Path runs = Files.createDirectories(base.resolve(".runs"));
+        Path root = Files.createTempDirectory(runs, "run-");
+        Files.createDirectory(root.resolve("mappings"));
+        Files.createDirectory(root.resolve("__files"));
+        return new RecordingWorkspace(base, root);
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Atomically renames the recording to {@code <base>/<name>}, replacing any recording published under that name,
+     * and deletes the recordings replaced longer than {@link #REPLACED_RETENTION} ago.
+     *
+     * @return the published directory
+     */
+    public synchronized Path publish(String name) throws IOException {
+        if (finished) {
+            throw new IllegalStateException(root + " has already been published or discarded");
+        }
+        Path target = base.resolve(name);
+        Path replaced = Files.createDirectories(base.resolve(".replaced"));
+        for (int attempt = 1; ; attempt++) {
+            if (Files.exists(target)) {
+                moveAside(target, replaced.resolve(System.currentTimeMillis() + "-" + name + "-" + root.getFileName() + "-" + attempt));
+            }
+            try {
+                Files.move(root, target, StandardCopyOption.ATOMIC_MOVE);
+                break;
+            } catch (FileSystemException e) {
+                // another run published the same name in between, or moved it aside again
+                if (attempt == MAX_PUBLISH_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+        finished = true;
+        deleteReplacedBefore(replaced, System.currentTimeMillis() - REPLACED_RETENTION.toMillis());
+        return target;
+    }
+
+    /**
+     * Discards the recording unless it has been published.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!finished) {
+            deleteRecursively(root);
+            finished = true;
+        }
+    }
+
+    /**
+     * Deletes a directory tree, removing its files in parallel before its directories.
+     */
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        Map<Boolean, List<Path>> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.collect(Collectors.partitioningBy(Files::isDirectory));
+        }
+        try {
+            paths.get(false).parallelStream().forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<Path> directories = paths.get(true);
+        directories.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+        for (Path path : directories) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void moveAside(Path target, Path aside) throws IOException {
+        try {
+            Files.move(target, aside, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // already moved aside by a concurrent publish
+        }
+    }
+
+    /**
+     * Deletes the replaced recordings whose name, prefixed with the time they were replaced, is older than
+     * {@code before}.
+     */
+    private static void deleteReplacedBefore(Path replaced, long before) throws IOException {
+        List<Path> expired;
+        try (Stream<Path> recordings = Files.list(replaced)) {
+            expired = recordings.filter(recording -> replacedAt(recording) < before).collect(Collectors.toList());
+        }
+        for (Path recording : expired) {
+            deleteRecursively(recording);
+        }
+    }
+
+    private static long replacedAt(Path recording) {
+        String name = recording.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, Math.max(0, name.indexOf('-'))));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
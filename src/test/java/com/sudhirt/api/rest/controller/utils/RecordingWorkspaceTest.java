@@ -0,0 +1,129 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RecordingWorkspaceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path base;
+
+    @Before
+    public void setup() {
+        base = temporaryFolder.getRoot().toPath();
+    }
+
+    @Test
+    public void isolateConcurrentRuns() throws IOException {
+        try (RecordingWorkspace first = RecordingWorkspace.create(base);
+             RecordingWorkspace second = RecordingWorkspace.create(base)) {
+            assertThat(first.root()).isNotEqualTo(second.root());
+            assertThat(first.root().resolve("mappings")).isDirectory();
+            assertThat(second.root().resolve("__files")).isDirectory();
+        }
+        try (Stream<Path> runs = Files.list(base.resolve(".runs"))) {
+            assertThat(runs.count()).isZero();
+        }
+    }
+
+    @Test
+    public void publishReplacesPreviousRecording() throws IOException {
+        RecordingWorkspace first = RecordingWorkspace.create(base);
+        write(first, "first.json");
+        Path published = first.publish("customers");
+        RecordingWorkspace second = RecordingWorkspace.create(base);
+        write(second, "second.json");
+
+        assertThat(second.publish("customers")).isEqualTo(published);
+
+        assertThat(published.resolve("mappings").resolve("second.json")).exists();
+        assertThat(published.resolve("mappings").resolve("first.json")).doesNotExist();
+        try (Stream<Path> runs = Files.list(base.resolve(".runs"))) {
+            assertThat(runs.count()).isZero();
+        }
+        try (Stream<Path> replaced = Files.list(base.resolve(".replaced"))) {
+            // kept for readers still using it
+            assertThat(replaced.map(recording -> recording.resolve("mappings").resolve("first.json"))).allMatch(Files::exists).hasSize(1);
+        }
+        assertThatThrownBy(() -> second.publish("customers")).isInstanceOf(IllegalStateException.class);
+        second.close();
+        assertThat(published).isDirectory();
+    }
+
+    @Test
+    public void publishDeletesRecordingsReplacedBeforeRetention() throws IOException {
+        Path expired = Files.createDirectories(base.resolve(".replaced").resolve("0-customers-run-1").resolve("mappings"));
+        Path recent = Files.createDirectories(base.resolve(".replaced").resolve(System.currentTimeMillis() + "-customers-run-2"));
+        RecordingWorkspace workspace = RecordingWorkspace.create(base);
+
+        workspace.publish("customers");
+
+        assertThat(expired.getParent()).doesNotExist();
+        assertThat(recent).isDirectory();
+    }
+
+    @Test
+    public void concurrentPublishesOfTheSameName() throws Exception {
+        int runs = 8;
+        List<RecordingWorkspace> workspaces = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            RecordingWorkspace workspace = RecordingWorkspace.create(base);
+            write(workspace, i + ".json");
+            workspaces.add(workspace);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(runs);
+        try {
+            List<Future<Path>> published = new ArrayList<>();
+            for (RecordingWorkspace workspace : workspaces) {
+                published.add(executor.submit(() -> workspace.publish("customers")));
+            }
+            for (Future<Path> path : published) {
+                assertThat(path.get()).isEqualTo(base.resolve("customers"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Stream<Path> mappings = Files.list(base.resolve("customers").resolve("mappings"))) {
+            assertThat(mappings.count()).isOne();
+        }
+        try (Stream<Path> replaced = Files.list(base.resolve(".replaced"))) {
+            assertThat(replaced.count()).isEqualTo(runs - 1);
+        }
+    }
+
+    @Test
+    public void deleteRecursively() throws IOException {
+        Path tree = Files.createDirectories(base.resolve("tree").resolve("a").resolve("b"));
+        for (int i = 0; i < 100; i++) {
+            Files.write(tree.resolve(i + ".json"), new byte[]{1});
+            Files.write(tree.getParent().resolve(i + ".json"), new byte[]{1});
+        }
+
+        RecordingWorkspace.deleteRecursively(base.resolve("tree"));
+
+        assertThat(base.resolve("tree")).doesNotExist();
+    }
+
+    private static void write(RecordingWorkspace workspace, String fileName) throws IOException {
+        Files.write(workspace.root().resolve("mappings").resolve(fileName), "{}".getBytes(StandardCharsets.UTF_8));
+    }
+}
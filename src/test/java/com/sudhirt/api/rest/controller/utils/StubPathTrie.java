@@ -0,0 +1,68 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Path-segment trie over stubs whose URL is a path template such as {@code /customers/[^/]+/addresses/[^/]+}.
+ * Literal segments are looked up by hash, template segments share a single wildcard child per node.
+ */
+class StubPathTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * @param segments path segments, {@code null} standing for a segment matching anything but {@code /}
+     */
+    void add(List<String> segments, T value) {
+        Node<T> node = root;
+        for (String segment : segments) {
+            node = segment == null
+                    ? node.wildcard()
+                    : node.literals.computeIfAbsent(segment, s -> new Node<>());
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Passes every value whose template could match the given path to the consumer.
+     */
+    void collect(String path, Consumer<T> consumer) {
+        collect(root, segmentsOf(path), 0, consumer);
+    }
+
+    static String[] segmentsOf(String path) {
+        return (path.startsWith("/") ? path.substring(1) : path).split("/", -1);
+    }
+
+    private void collect(Node<T> node, String[] segments, int depth, Consumer<T> consumer) {
+        if (depth == segments.length) {
+            node.values.forEach(consumer);
+            return;
+        }
+        Node<T> literal = node.literals.get(segments[depth]);
+        if (literal != null) {
+            collect(literal, segments, depth + 1, consumer);
+        }
+        if (node.wildcard != null && !segments[depth].isEmpty()) {
+            collect(node.wildcard, segments, depth + 1, consumer);
+        }
+    }
+
+    private static class Node<T> {
+
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private final List<T> values = new ArrayList<>(1);
+        private Node<T> wildcard;
+
+        private Node<T> wildcard() {
+            if (wildcard == null) {
+                wildcard = new Node<>();
+            }
+            return wildcard;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Packs a recording session into a single file that opens without parsing any stub.
+ * <p>
+ * Layout: a header ({@code magic}, {@code version}, stub count, body count), then one index entry per body file and
+ * one per stub in mapping file order, then the bodies and stubs, each individually deflated. Stubs matching only a
+ * method and an exact URL are indexed by both, so {@link #open(Path)} only reads the index and inflates each stub the
+ * first time a request hits it; other stubs are inflated upfront. Stubs keep referring to their body file by name,
+ * so a body shared by many stubs, as {@link ContentAddressedBodies} records them, is stored and inflated once.
+ */
+@UtilityClass
+public class StubSnapshot {
+
+    private static final int MAGIC = 0x574d5331;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final byte LAZY = 1;
+    private static final byte EAGER = 0;
+
+    /**
+     * Writes the stubs recorded under {@code root/mappings}, with the bodies they reference under
+     * {@code root/__files}, into {@code snapshot}.
+     */
+    public static void write(Path root, Path snapshot) throws IOException {
+        List<Path> files;
+        try (Stream<Path> mappings = Files.list(root.resolve("mappings"))) {
+            files = mappings.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList());
+        }
+        ByteArrayOutputStream bodyIndex = new ByteArrayOutputStream();
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream bodyIndexOut = new DataOutputStream(bodyIndex);
+        DataOutputStream indexOut = new DataOutputStream(index);
+        Set<String> bodies = new HashSet<>();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            for (Path file : files) {
+                StubMapping stub = StubMapping.buildFrom(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+                String bodyFileName = stub.getResponse().getBodyFileName();
+                if (bodyFileName != null && bodies.add(bodyFileName)) {
+                    writeString(bodyIndexOut, bodyFileName);
+                    writeEntry(bodyIndexOut, data, deflater, Files.readAllBytes(root.resolve("__files").resolve(bodyFileName)));
+                }
+                writeStub(stub, indexOut, data, deflater);
+            }
+        } finally {
+            deflater.end();
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshot))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            out.writeInt(bodies.size());
+            bodyIndex.writeTo(out);
+            index.writeTo(out);
+            data.writeTo(out);
+        }
+    }
+
+    private static void writeStub(StubMapping stub, DataOutputStream indexOut, ByteArrayOutputStream data, Deflater deflater) throws IOException {
+        if (IndexedStubMappings.isMethodAndUrlOnly(stub)) {
+            indexOut.writeByte(LAZY);
+            writeString(indexOut, stub.getRequest().getMethod().getName());
+            writeString(indexOut, stub.getRequest().getUrl());
+            indexOut.writeInt(stub.getPriority() == null ? -1 : stub.getPriority());
+        } else {
+            indexOut.writeByte(EAGER);
+        }
+        writeEntry(indexOut, data, deflater, StubMapping.buildJsonStringFor(stub).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeEntry(DataOutputStream indexOut, ByteArrayOutputStream data, Deflater deflater, byte[] content) throws IOException {
+        int start = data.size();
+        deflater.reset();
+        DeflaterOutputStream out = new DeflaterOutputStream(data, deflater);
+        out.write(content);
+        out.finish();
+        indexOut.writeInt(start);
+        indexOut.writeInt(data.size() - start);
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write(Path, Path)} into memory and indexes its stubs.
+     */
+    public static IndexedStubMappings open(Path snapshot) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException(snapshot + " is not a stub snapshot");
+        }
+        int count = buffer.getInt();
+        int bodyCount = buffer.getInt();
+        Map<String, Entry> bodyEntries = new HashMap<>(bodyCount * 2);
+        for (int i = 0; i < bodyCount; i++) {
+            String name = readString(buffer);
+            Entry entry = new Entry();
+            entry.offset = buffer.getInt();
+            entry.length = buffer.getInt();
+            bodyEntries.put(name, entry);
+        }
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry();
+            if (buffer.get() == LAZY) {
+                entry.method = RequestMethod.fromString(readString(buffer));
+                entry.url = readString(buffer);
+                int priority = buffer.getInt();
+                entry.priority = priority < 0 ? null : priority;
+            }
+            entry.offset = buffer.getInt();
+            entry.length = buffer.getInt();
+            entries.add(entry);
+        }
+        ByteBuffer data = buffer.slice();
+        Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+        Function<String, byte[]> body = name -> bodies.computeIfAbsent(name, n -> inflate(data, bodyEntries.get(n)));
+        IndexedStubMappings stubs = new IndexedStubMappings();
+        for (Entry entry : entries) {
+            if (entry.url != null) {
+                stubs.addLazily(entry.method, entry.url, entry.priority, () -> inflateStub(data, entry, body));
+            } else {
+                stubs.add(inflateStub(data, entry, body));
+            }
+        }
+        return stubs;
+    }
+
+    /**
+     * Inflates a stub and swaps its body file reference for the shared body stored in the snapshot.
+     */
+    private static StubMapping inflateStub(ByteBuffer data, Entry entry, Function<String, byte[]> body) {
+        StubMapping stub = StubMapping.buildFrom(new String(inflate(data, entry), StandardCharsets.UTF_8));
+        ResponseDefinition response = stub.getResponse();
+        if (response.getBodyFileName() != null) {
+            stub.setResponse(ResponseDefinitionBuilder.like(response).withBodyFile(null).withBody(body.apply(response.getBodyFileName())).build());
+        }
+        return stub;
+    }
+
+    private static byte[] inflate(ByteBuffer data, Entry entry) {
+        ByteBuffer slice = data.duplicate();
+        slice.position(entry.offset);
+        byte[] compressed = new byte[entry.length];
+        slice.get(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream content = new ByteArrayOutputStream(entry.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated entry at offset " + entry.offset);
+                }
+                content.write(chunk, 0, read);
+            }
+            return content.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt entry at offset " + entry.offset, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+
+        private RequestMethod method;
+        private String url;
+        private Integer priority;
+        private int offset;
+        private int length;
+    }
+}
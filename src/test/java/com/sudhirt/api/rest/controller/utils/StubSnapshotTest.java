@@ -0,0 +1,92 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StubSnapshotTest {
+
+    @Rule
+    public TemporaryFolder workspace = new TemporaryFolder();
+
+    private Path root;
+
+    @Before
+    public void setup() throws IOException {
+        root = workspace.getRoot().toPath();
+        Files.createDirectories(root.resolve("mappings"));
+        Files.createDirectories(root.resolve("__files"));
+    }
+
+    @Test
+    public void writeAndOpen() throws IOException {
+        write("1-customers.json", get(urlEqualTo("/customers")).willReturn(okJson("[]")).build());
+        write("2-customer.json", get(urlEqualTo("/customers/1")).willReturn(aResponse().withBodyFile("customer-1.json")).build());
+        write("3-address.json", put(urlPathMatching("/customers/[^/]+/addresses/[^/]+")).willReturn(noContent()).build());
+        Files.write(root.resolve("__files").resolve("customer-1.json"), "{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+        Path snapshot = root.resolve("stubs.snapshot");
+
+        StubSnapshot.write(root, snapshot);
+        IndexedStubMappings stubs = StubSnapshot.open(snapshot);
+
+        assertThat(stubs.size()).isEqualTo(3);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers")).getResponse().getBody()).isEqualTo("[]");
+        StubMapping customer = stubs.find(request(RequestMethod.GET, "/customers/1"));
+        assertThat(customer.getResponse().getBodyFileName()).isNull();
+        assertThat(new String(customer.getResponse().getByteBody(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":\"1\"}");
+        assertThat(stubs.find(request(RequestMethod.PUT, "/customers/1/addresses/2")).getResponse().getStatus()).isEqualTo(204);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/2"))).isNull();
+    }
+
+    @Test
+    public void storeSharedBodiesOnce() throws IOException {
+        byte[] body = new byte[32 * 1024];
+        new Random(42).nextBytes(body);
+        for (int i = 0; i < 20; i++) {
+            write(i + ".json", get(urlEqualTo("/customers/" + i)).willReturn(ok().withBody(body)).build());
+        }
+        ContentAddressedBodies.rewrite(root);
+        Path snapshot = root.resolve("stubs.snapshot");
+
+        StubSnapshot.write(root, snapshot);
+        IndexedStubMappings stubs = StubSnapshot.open(snapshot);
+
+        assertThat(Files.size(snapshot)).isLessThan(2L * body.length);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/0")).getResponse().getByteBody()).isEqualTo(body);
+        assertThat(stubs.find(request(RequestMethod.GET, "/customers/19")).getResponse().getByteBody()).isEqualTo(body);
+    }
+
+    @Test
+    public void rejectOtherFiles() throws IOException {
+        Path other = root.resolve("mappings").resolve("other.json");
+        Files.write(other, "{}".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> StubSnapshot.open(other)).isInstanceOf(IOException.class);
+    }
+
+    private void write(String fileName, StubMapping stub) throws IOException {
+        Files.write(root.resolve("mappings").resolve(fileName), StubMapping.buildJsonStringFor(stub).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LoggedRequest request(RequestMethod method, String url) {
+        return new LoggedRequest(url, "http://localhost" + url, method, "127.0.0.1", new HttpHeaders(),
+                Collections.emptyMap(), false, new Date(), new byte[0], Collections.emptyList());
+    }
+}
@@ -0,0 +1,251 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+
+/**
+ * Serves {@code GET /customers/{id}}, {@code /customers/{id}/addresses} and {@code /customers/{id}/addresses/{id}} for
+ * any customer id from templates derived from a recording, so a virtual service can stand in for a production-sized
+ * dataset without recording it.
+ * <p>
+ * Every id segment names a customer, whatever its form, and every response is computed from the seed and a hash of
+ * the id: the same id always gets the same data and nothing is kept per customer. Each field takes a value seen for
+ * it in the recording; fields recorded with a distinct numbered value per record, like {@code FIRST_NAME7}, get a new
+ * number instead. Address counts follow the recorded address lists, and address ids are name-based UUIDs of the
+ * customer id and the address's index. Segments starting with {@code _}, such as {@code _bulk}, are endpoints rather
+ * than ids; those and any other request are answered with a 404.
+ */
+public class SyntheticCustomers extends ResponseDefinitionTransformer {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String ID = "([^/_][^/]*)";
+    private static final Pattern CUSTOMER = Pattern.compile("/customers/" + ID);
+    private static final Pattern ADDRESSES = Pattern.compile("/customers/" + ID + "/addresses");
+    private static final Pattern ADDRESS = Pattern.compile("/customers/" + ID + "/addresses/" + ID);
+    private static final Pattern NUMBERED = Pattern.compile("(\\D*)\\d+");
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int CUSTOMER_STREAM = 0;
+    private static final int ADDRESS_COUNT_STREAM = 1;
+
+    private final RecordTemplate customer;
+    private final RecordTemplate address;
+    private final int[] addressCounts;
+    private final long seed;
+
+    private SyntheticCustomers(RecordTemplate customer, RecordTemplate address, List<Integer> addressCounts, long seed) {
+        this.customer = customer;
+        this.address = address;
+        this.addressCounts = addressCounts.stream().mapToInt(Integer::intValue).toArray();
+        this.seed = seed;
+    }
+
+    /**
+     * Derives the templates from the successful {@code GET} stubs recorded under {@code root}.
+     */
+    public static SyntheticCustomers fromRecording(Path root, long seed) throws IOException {
+        RecordTemplate customer = new RecordTemplate();
+        RecordTemplate address = new RecordTemplate();
+        List<Integer> addressCounts = new ArrayList<>();
+        try (Stream<Path> files = Files.list(root.resolve("mappings"))) {
+            for (Path file : files.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList())) {
+                StubMapping stub = StubMapping.buildFrom(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+                String url = stub.getRequest().getUrl();
+                if (url == null || !RequestMethod.GET.equals(stub.getRequest().getMethod()) || stub.getResponse().getStatus() != 200) {
+                    continue;
+                }
+                if (CUSTOMER.matcher(url).matches()) {
+                    customer.observe(bodyOf(root, stub));
+                } else if (ADDRESSES.matcher(url).matches()) {
+                    JsonNode addresses = bodyOf(root, stub);
+                    addresses.forEach(address::observe);
+                    addressCounts.add(addresses.size());
+                } else if (ADDRESS.matcher(url).matches()) {
+                    address.observe(bodyOf(root, stub));
+                }
+            }
+        }
+        if (customer.template == null || address.template == null) {
+            throw new IllegalStateException("No recorded customer and address stubs under " + root);
+        }
+        if (addressCounts.isEmpty()) {
+            addressCounts.add(1);
+        }
+        return new SyntheticCustomers(customer, address, addressCounts, seed);
+    }
+
+    /**
+     * Starts a WireMock server on a dynamic port answering for any synthetic customer.
+     */
+    public static WireMockServer start(Path root, long seed) throws IOException {
+        WireMockServer wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort()
+                .usingFilesUnderDirectory(root.toString())
+                .mappingSource(new IndexedStubReplayer.NoMappingsSource())
+                .extensions(fromRecording(root, seed)));
+        wireMockServer.start();
+        wireMockServer.stubFor(any(anyUrl()).willReturn(aResponse()));
+        return wireMockServer;
+    }
+
+    public ObjectNode customer(String id) {
+        return customer.generate(id, random(id, CUSTOMER_STREAM));
+    }
+
+    public ArrayNode addresses(String customerId) {
+        ArrayNode addresses = OBJECT_MAPPER.createArrayNode();
+        int count = addressCount(customerId);
+        for (int index = 0; index < count; index++) {
+            addresses.add(generateAddress(customerId, index));
+        }
+        return addresses;
+    }
+
+    /**
+     * @return the address, or {@code null} if it does not belong to the customer
+     */
+    public ObjectNode address(String customerId, String addressId) {
+        int count = addressCount(customerId);
+        for (int index = 0; index < count; index++) {
+            if (addressId(customerId, index).equals(addressId)) {
+                return generateAddress(customerId, index);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        JsonNode body = null;
+        if (RequestMethod.GET.equals(request.getMethod())) {
+            String path = request.getUrl().split("\\?", 2)[0];
+            Matcher matcher;
+            if ((matcher = CUSTOMER.matcher(path)).matches()) {
+                body = customer(matcher.group(1));
+            } else if ((matcher = ADDRESSES.matcher(path)).matches()) {
+                body = addresses(matcher.group(1));
+            } else if ((matcher = ADDRESS.matcher(path)).matches()) {
+                body = address(matcher.group(1), matcher.group(2));
+            }
+        }
+        if (body == null) {
+            return ResponseDefinition.notConfigured();
+        }
+        return aResponse().withHeader("Content-Type", "application/json;charset=UTF-8").withBody(body.toString()).build();
+    }
+
+    @Override
+    public String getName() {
+        return "synthetic-customers";
+    }
+
+    private int addressCount(String customerId) {
+        return addressCounts[random(customerId, ADDRESS_COUNT_STREAM).nextInt(addressCounts.length)];
+    }
+
+    private ObjectNode generateAddress(String customerId, int index) {
+        return address.generate(addressId(customerId, index), random(customerId, ADDRESS_COUNT_STREAM + 1 + index));
+    }
+
+    private static String addressId(String customerId, int index) {
+        return UUID.nameUUIDFromBytes((customerId + "/" + index).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * One independent generator per id and stream, so any part of a customer is generated without the others.
+     */
+    private SplittableRandom random(String id, int stream) {
+        return new SplittableRandom(new SplittableRandom(seed + hash(id) * GOLDEN_GAMMA).nextLong() + stream);
+    }
+
+    /**
+     * 64-bit FNV-1a of the id's UTF-8 bytes, stable across JVMs unlike {@link String#hashCode()}'s 32 bits.
+     */
+    private static long hash(String id) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static JsonNode bodyOf(Path root, StubMapping stub) throws IOException {
+        ResponseDefinition response = stub.getResponse();
+        byte[] body = response.specifiesBodyFile()
+                ? Files.readAllBytes(root.resolve("__files").resolve(response.getBodyFileName()))
+                : response.getByteBody();
+        return OBJECT_MAPPER.readTree(body);
+    }
+
+    /**
+     * Shape of a recorded JSON object and the values seen for each of its fields.
+     */
+    private static class RecordTemplate {
+
+        private ObjectNode template;
+        private final Map<String, List<JsonNode>> values = new LinkedHashMap<>();
+
+        void observe(JsonNode record) {
+            if (!record.isObject()) {
+                return;
+            }
+            if (template == null) {
+                template = (ObjectNode) record;
+            }
+            record.fields().forEachRemaining(field -> values.computeIfAbsent(field.getKey(), name -> new ArrayList<>()).add(field.getValue()));
+        }
+
+        ObjectNode generate(String id, SplittableRandom random) {
+            ObjectNode generated = template.deepCopy();
+            for (Iterator<String> names = template.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                generated.set(name, "id".equals(name) ? TextNode.valueOf(id) : valueOf(values.get(name), random));
+            }
+            return generated;
+        }
+
+        private static JsonNode valueOf(List<JsonNode> observed, SplittableRandom random) {
+            JsonNode picked = observed.get(random.nextInt(observed.size()));
+            if (picked.isTextual() && observed.size() > 1 && new HashSet<>(observed).size() == observed.size()) {
+                Matcher numbered = NUMBERED.matcher(picked.textValue());
+                if (numbered.matches()) {
+                    return TextNode.valueOf(numbered.group(1) + random.nextInt(1, Integer.MAX_VALUE));
+                }
+            }
+            return picked;
+        }
+    }
+}
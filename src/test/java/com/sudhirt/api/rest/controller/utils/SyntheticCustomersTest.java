@@ -0,0 +1,73 @@
+package com.sudhirt.api.rest.controller.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SyntheticCustomersTest {
+
+    @Rule
+    public TemporaryFolder workspace = new TemporaryFolder();
+
+    private Path root;
+
+    @Before
+    public void setup() throws IOException {
+        root = workspace.getRoot().toPath();
+        Files.createDirectories(root.resolve("mappings"));
+        write("customer-1.json", get(urlEqualTo("/customers/1"))
+                .willReturn(okJson("{\"id\":\"1\",\"salutation\":\"Mr.\",\"firstName\":\"FIRST_NAME1\",\"lastName\":\"LAST_NAME1\"}")).build());
+        write("customer-2.json", get(urlEqualTo("/customers/2"))
+                .willReturn(okJson("{\"id\":\"2\",\"salutation\":\"Mrs.\",\"firstName\":\"FIRST_NAME2\",\"lastName\":\"LAST_NAME1\"}")).build());
+        write("addresses-1.json", get(urlEqualTo("/customers/1/addresses"))
+                .willReturn(okJson("[{\"id\":\"1\",\"addressType\":\"RESIDENCE\",\"city\":\"Hyderabad\"},"
+                        + "{\"id\":\"2\",\"addressType\":\"OFFICE\",\"city\":\"Hyderabad\"}]")).build());
+        write("not-found.json", get(urlEqualTo("/customers/3")).willReturn(notFound()).build());
+    }
+
+    @Test
+    public void generatesAnyCustomerFromTemplates() throws IOException {
+        SyntheticCustomers customers = SyntheticCustomers.fromRecording(root, 42);
+
+        for (String id : new String[]{"9876543", "0190f5a4-8c3e-7b1a-9d2f-3c4b5a6d7e8f", "4bd1a1c2-2a7e-11e8-b467-0ed5f89f718b"}) {
+            JsonNode customer = customers.customer(id);
+            assertThat(customer.get("id").asText()).isEqualTo(id);
+            assertThat(customer.get("salutation").asText()).isIn("Mr.", "Mrs.");
+            assertThat(customer.get("firstName").asText()).startsWith("FIRST_NAME");
+            assertThat(customer.get("lastName").asText()).isEqualTo("LAST_NAME1");
+
+            for (JsonNode address : customers.addresses(id)) {
+                assertThat(address.get("addressType").asText()).isIn("RESIDENCE", "OFFICE");
+                assertThat(customers.address(id, address.get("id").asText())).isEqualTo(address);
+                assertThat(customers.address("1", address.get("id").asText())).isNull();
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGeneratesSameData() throws IOException {
+        SyntheticCustomers customers = SyntheticCustomers.fromRecording(root, 42);
+        SyntheticCustomers again = SyntheticCustomers.fromRecording(root, 42);
+        SyntheticCustomers reseeded = SyntheticCustomers.fromRecording(root, 7);
+        String id = "0190f5a4-8c3e-7b1a-9d2f-3c4b5a6d7e8f";
+
+        assertThat(again.customer(id)).isEqualTo(customers.customer(id));
+        assertThat(again.addresses(id)).isEqualTo(customers.addresses(id));
+        assertThat(reseeded.customer(id)).isNotEqualTo(customers.customer(id));
+    }
+
+    private void write(String fileName, StubMapping stub) throws IOException {
+        Files.write(root.resolve("mappings").resolve(fileName), StubMapping.buildJsonStringFor(stub).getBytes(StandardCharsets.UTF_8));
+    }
+}
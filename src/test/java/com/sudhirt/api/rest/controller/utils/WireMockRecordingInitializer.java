@@ -3,22 +3,16 @@ package com.sudhirt.api.rest.controller.utils;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import lombok.experimental.UtilityClass;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 
 @UtilityClass
 public class WireMockRecordingInitializer {
 
-    public static WireMockServer initialize(int port) throws IOException {
-        String tmpFolder = System.getProperty("java.io.tmpdir");
-        if (!cleanupIfExists(Paths.get(tmpFolder + "\\mappings"))) {
-            Files.createDirectories(Paths.get(tmpFolder + "\\mappings"));
-        }
-        WireMockServer wireMockServer = new WireMockServer(options().port(port + 1).usingFilesUnderDirectory(tmpFolder));
+    /**
+     * Starts a recording proxy on a dynamic port in front of the application, writing into the workspace.
+     */
+    public static WireMockServer initialize(int port, RecordingWorkspace workspace) {
+        WireMockServer wireMockServer = new WireMockServer(options().dynamicPort().usingFilesUnderDirectory(workspace.root().toString()));
         wireMockServer.start();
         wireMockServer.startRecording("http://localhost:" + port);
         return wireMockServer;
@@ -26,26 +20,17 @@ public class WireMockRecordingInitializer {
 
     public static void teardown(WireMockServer wireMockServer) {
         wireMockServer.stopRecording();
-        wireMockServer.stop();
-        try {
-            // Simulate a delay to make sure wiremock server is stopped
-            Thread.sleep(1000L);
-        } catch (InterruptedException var2) {
-            throw new RuntimeException(var2);
-        }
+        stop(wireMockServer);
     }
 
-    private static boolean cleanupIfExists(Path path) throws IOException {
-        if (Files.exists(path)) {
-            Files.list(path).forEach(p -> {
-                try {
-                    Files.deleteIfExists(p);
-                } catch (IOException e) {
-                    throw new RuntimeException("Unable to cleanup mappings directory");
-                }
-            });
-            return true;
+    /**
+     * Stops the server and its Jetty container. {@link WireMockServer#stop()} joins the container threads, so the
+     * port is released by the time this returns.
+     */
+    public static void stop(WireMockServer wireMockServer) {
+        wireMockServer.stop();
+        if (wireMockServer.isRunning()) {
+            throw new IllegalStateException("WireMock server did not stop");
         }
-        return false;
     }
 }
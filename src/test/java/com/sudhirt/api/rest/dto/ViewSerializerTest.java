@@ -0,0 +1,108 @@
+package com.sudhirt.api.rest.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sudhirt.api.rest.constant.AddressType;
+import com.sudhirt.api.rest.entity.Address;
+import com.sudhirt.api.rest.entity.Customer;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ViewSerializerTest {
+
+    private final ObjectMapper objectMapper = applicationMapper();
+
+    @Test
+    public void writesCustomersLikeTheEntity() throws Exception {
+        Customer customer = customer(new Date(1_508_282_580_007L));
+        assertThat(objectMapper.writeValueAsString(CustomerView.of(customer))).isEqualTo(objectMapper.writeValueAsString(customer));
+
+        Customer beforeEpoch = customer(new Date(-1_000_000_000_001L));
+        beforeEpoch.setSalutation(null);
+        assertThat(objectMapper.writeValueAsString(CustomerView.of(beforeEpoch))).isEqualTo(objectMapper.writeValueAsString(beforeEpoch));
+    }
+
+    @Test
+    public void writesAddressesLikeTheEntity() throws Exception {
+        Address address = Address.builder().id("1").addressType(AddressType.RESIDENCE).address1("H.No. 123").city("Hyderabad")
+                .country("India").zipcode("500072").build();
+        address.setRevision(1L);
+        address.setCreatedDate(new Date(1_508_282_580_007L));
+        AddressView view = new AddressView(address.getId(), address.getAddressType(), address.getAddress1(), null, address.getCity(), null,
+                address.getCountry(), address.getZipcode(), "1", address.getRevision(), address.getCreatedDate(), null);
+
+        assertThat(objectMapper.writeValueAsString(view)).isEqualTo(objectMapper.writeValueAsString(address));
+    }
+
+    @Test
+    public void followsTheDateSettingsOfTheMapper() throws Exception {
+        ObjectMapper localMapper = Jackson2ObjectMapperBuilder.json()
+                .timeZone(TimeZone.getTimeZone("Asia/Kolkata")).dateFormat(new SimpleDateFormat("dd/MM/yyyy HH:mm")).build();
+        Customer customer = customer(new Date(1_508_282_580_007L));
+
+        assertThat(localMapper.writeValueAsString(CustomerView.of(customer))).isEqualTo(localMapper.writeValueAsString(customer));
+    }
+
+    @Test
+    public void writesInTheTimeZoneOfTheMapper() throws Exception {
+        ObjectMapper localMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone(TimeZone.getTimeZone("Asia/Kolkata")).build();
+        Customer customer = customer(new Date(1_508_282_580_007L));
+
+        String json = localMapper.writeValueAsString(CustomerView.of(customer));
+        assertThat(json).isEqualTo(localMapper.writeValueAsString(customer));
+        assertThat(localMapper.readTree(json).get("modifiedDate").asText()).isEqualTo("2017-10-18T04:53:00.007+0530");
+    }
+
+    @Test
+    public void writesUtcWhateverTheDefaultTimeZone() throws Exception {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            ObjectMapper mapper = applicationMapper();
+            for (long millis : new long[]{1_508_282_580_007L, -1_000_000_000_001L, -13_000_000_000_000L, 0L}) {
+                Customer customer = customer(new Date(millis));
+                assertThat(mapper.writeValueAsString(CustomerView.of(customer))).isEqualTo(mapper.writeValueAsString(customer));
+            }
+            JsonNode json = mapper.readTree(mapper.writeValueAsString(CustomerView.of(customer(new Date(1_508_282_580_007L)))));
+            assertThat(json.get("modifiedDate").asText()).isEqualTo("2017-10-17T23:23:00.007+0000");
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    @Test
+    public void unwrapsIntoCustomerDetails() throws Exception {
+        CustomerDetails details = new CustomerDetails(CustomerView.of(customer(new Date())), Collections.emptyList());
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(details));
+        assertThat(json.get("id").asText()).isEqualTo("1");
+        assertThat(json.get("dateOfBirth").asText()).isEqualTo("1980-02-29");
+        assertThat(json.get("addresses").size()).isZero();
+    }
+
+    /**
+     * Configured like Spring Boot's auto-configured mapper, which writes dates as strings.
+     */
+    private static ObjectMapper applicationMapper() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    private static Customer customer(Date modifiedDate) {
+        Customer customer = Customer.builder().id("1").salutation("Mr.").firstName("FIRST_NAME1").lastName("LAST_NAME1")
+                .dateOfBirth(LocalDate.of(1980, 2, 29)).build();
+        customer.setRevision(3L);
+        customer.setCreatedDate(new Date(0));
+        customer.setModifiedDate(modifiedDate);
+        return customer;
+    }
+}
@@ -0,0 +1,32 @@
+package com.sudhirt.api.rest.entity;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    public void generatesVersion7Uuids() {
+        long now = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.next(now, new Random(1));
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(now);
+    }
+
+    @Test
+    public void sortsByCreationTime() {
+        Random random = new Random(1);
+        String previous = TimeOrderedUuidGenerator.next(1_500_000_000_000L, random).toString();
+        for (long millis = 1_500_000_000_001L; millis < 1_500_000_001_000L; millis++) {
+            String next = TimeOrderedUuidGenerator.next(millis, random).toString();
+            assertThat(next.compareTo(previous)).isPositive();
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.sudhirt.api.rest.execution;
+
+import com.sudhirt.api.rest.exception.ServiceUnavailableException;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    private final ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 2, 10);
+
+    @Test
+    public void releasesPermitOnceOnClose() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+        verify(pooled, times(1)).close();
+    }
+
+    @Test
+    public void rejectsOnceAllPermitsAreTaken() throws SQLException {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    public void releasesPermitWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,51 @@
+package com.sudhirt.api.rest.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"customers.execution.mode=elastic", "customers.execution.db.max-concurrency=1",
+        "customers.execution.db.acquire-timeout-ms=50"})
+@AutoConfigureMockMvc
+public class ElasticExecutionConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void limitsTheApplicationDataSource() throws Exception {
+        assertThat(dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class)).isTrue();
+        assertThat(meterRegistry.get(ElasticExecutionConfiguration.DB_PERMITS_METRIC_NAME).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(ElasticExecutionConfiguration.DB_QUEUED_METRIC_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    public void answersWithServiceUnavailableOnceSaturated() throws Exception {
+        try (Connection taken = dataSource.getConnection()) {
+            assertThat(meterRegistry.get(ElasticExecutionConfiguration.DB_PERMITS_METRIC_NAME).gauge().value()).isZero();
+            mockMvc.perform(get("/customers/1"))
+                    .andExpect(status().isServiceUnavailable());
+        }
+        mockMvc.perform(get("/customers/1"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,58 @@
+package com.sudhirt.api.rest.service;
+
+import com.sudhirt.api.rest.constant.AddressType;
+import com.sudhirt.api.rest.dto.AddressView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AddressCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AddressCache addressCache = new AddressCache("maximumSize=10", meterRegistry);
+
+    @Test
+    public void loadsOnlyOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+        addressCache.get("1", customerId -> {
+            loads.incrementAndGet();
+            return Collections.singletonList(address("1", customerId));
+        });
+        List<AddressView> cached = addressCache.get("1", customerId -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        });
+        assertThat(loads).hasValue(1);
+        assertThat(cached).extracting(AddressView::getId).containsExactly("1");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", AddressCache.NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(addressCache.getIfPresent("1")).isSameAs(cached);
+    }
+
+    @Test
+    public void evicts() {
+        addressCache.get("1", customerId -> Collections.singletonList(address("1", customerId)));
+        addressCache.evict("1");
+        assertThat(addressCache.getIfPresent("1")).isNull();
+    }
+
+    @Test
+    public void doesNotStoreListLoadedDuringEviction() {
+        List<AddressView> loaded = addressCache.get("1", customerId -> {
+            addressCache.evict(customerId);
+            return Collections.singletonList(address("1", customerId));
+        });
+        assertThat(loaded).hasSize(1);
+        assertThat(addressCache.getIfPresent("1")).isNull();
+    }
+
+    private static AddressView address(String id, String customerId) {
+        return new AddressView(id, AddressType.RESIDENCE, "ADDRESS1", null, "CITY", null, "COUNTRY", "123456", customerId, 1L, new Date(), new Date());
+    }
+}
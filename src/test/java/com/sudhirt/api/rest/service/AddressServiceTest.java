@@ -1,9 +1,13 @@
 package com.sudhirt.api.rest.service;
 
 import com.sudhirt.api.rest.constant.AddressType;
+import com.sudhirt.api.rest.dto.AddressView;
 import com.sudhirt.api.rest.entity.Address;
 import com.sudhirt.api.rest.entity.Customer;
 import com.sudhirt.api.rest.exception.NotFoundException;
+import com.sudhirt.api.rest.exception.PreconditionFailedException;
+import com.sudhirt.api.rest.metrics.QueryCountingStatementInspector;
+import org.hibernate.Session;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +16,8 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,12 +32,41 @@ public class AddressServiceTest {
     @Autowired
     private AddressService addressService;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     public void getAddressByCustomer() {
-        List<Address> addressList = addressService.getByCustomerId("1");
+        List<AddressView> addressList = addressService.getByCustomerId("1");
         assertThat(addressList).hasSize(3);
     }
 
+    @Test
+    public void getAddressByCustomerRunsSingleQuery() {
+        QueryCountingStatementInspector.reset();
+        addressService.getByCustomerId("1");
+        assertThat(QueryCountingStatementInspector.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void getAddressByCustomerIsCachedUntilChanged() {
+        assertThat(addressService.getByCustomerId("1")).hasSize(3);
+        QueryCountingStatementInspector.reset();
+        assertThat(addressService.getByCustomerId("1")).hasSize(3);
+        assertThat(addressService.getByIdAndCustomerId("2", "1").getAddressType()).isEqualTo(AddressType.MAILING);
+        assertThat(QueryCountingStatementInspector.count()).isZero();
+
+        addressService.deleteByIdAndCustomerId("1", "1");
+        assertThat(addressService.getByCustomerId("1")).hasSize(2);
+        assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> addressService.getByIdAndCustomerId("1", "1"));
+    }
+
+    @Test
+    public void getAddressByCustomerWithoutAddresses() {
+        List<AddressView> addressList = addressService.getByCustomerId("5");
+        assertThat(addressList).isEmpty();
+    }
+
     @Test
     public void getAddressByInvalidCustomer() {
         assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> addressService.getByCustomerId("100"));
@@ -44,10 +79,18 @@ public class AddressServiceTest {
 
     @Test
     public void getAddressByIdAndCustomerId() {
-        Address address = addressService.getByIdAndCustomerId("1", "1");
+        AddressView address = addressService.getByIdAndCustomerId("1", "1");
         assertThat(address).isNotNull();
     }
 
+    @Test
+    @Transactional
+    public void getAddressesWithoutManagingEntities() {
+        assertThat(addressService.getByCustomerId("1")).hasSize(3);
+        assertThat(addressService.getByIdAndCustomerId("1", "1").getCustomerId()).isEqualTo("1");
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     public void getAddressByIdAndUnrelatedCustomerId() {
         assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> addressService.getByIdAndCustomerId("1", "5"));
@@ -88,6 +131,66 @@ public class AddressServiceTest {
         assertThat(dbAddress.getZipcode()).isEqualTo(address.getZipcode());
     }
 
+    @Test
+    public void createAddressesWithSingleCustomerLookup() {
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            addresses.add(Address.builder().address1("ADDRESS" + i).addressType(AddressType.OFFICE).city("CITY").country("COUNTRY").zipcode("123456").build());
+        }
+        QueryCountingStatementInspector.reset();
+        List<String> ids = addressService.saveAll("15", addresses);
+        // one existence check plus one prepared insert per JDBC batch of 50
+        assertThat(QueryCountingStatementInspector.count()).isEqualTo(4);
+        assertThat(ids).hasSize(120).doesNotContainNull();
+        assertThat(addressService.getByCustomerId("15")).hasSize(120);
+    }
+
+    @Test
+    @Transactional
+    public void updateAddressWithSingleStatement() {
+        QueryCountingStatementInspector.reset();
+        addressService.update("1", "1", 1L, Address.builder().city("CITY").build());
+        assertThat(QueryCountingStatementInspector.count()).isEqualTo(1);
+
+        Address address = addressService.getById("1");
+        assertThat(address.getCity()).isEqualTo("CITY");
+        assertThat(address.getRevision()).isEqualTo(2L);
+    }
+
+    @Test
+    @Transactional
+    public void updateAddressWithStaleRevision() {
+        assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> addressService.update("1", "1", 0L, Address.builder().city("CITY").build()));
+    }
+
+    @Test
+    @Transactional
+    public void createAddressForInvalidCustomer() {
+        Address address = Address.builder()
+                .address1("ADDRESS1")
+                .addressType(AddressType.OFFICE)
+                .city("CITY")
+                .country("COUNTRY")
+                .zipcode("123456")
+                .build();
+        assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> addressService.save("100", address));
+    }
+
+    @Test
+    @Transactional
+    public void deleteAddress() {
+        addressService.deleteByIdAndCustomerId("1", "1");
+        assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> addressService.getById("1"));
+    }
+
+    @Test
+    @Transactional
+    public void deleteAddressOfUnrelatedCustomer() {
+        assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> addressService.deleteByIdAndCustomerId("1", "2"));
+        assertThat(addressService.getById("1")).isNotNull();
+    }
+
     @Test
     @Transactional
     public void updateAddress() {
@@ -0,0 +1,18 @@
+package com.sudhirt.api.rest.service;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Empties the application caches before every test method: the {@code @Sql} scripts reload the data behind their back.
+ */
+public class CacheResetListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        ApplicationContext context = testContext.getApplicationContext();
+        context.getBeansOfType(CustomerCache.class).values().forEach(CustomerCache::clear);
+        context.getBeansOfType(AddressCache.class).values().forEach(AddressCache::clear);
+    }
+}
@@ -0,0 +1,76 @@
+package com.sudhirt.api.rest.service;
+
+import com.sudhirt.api.rest.entity.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CustomerCache customerCache = new CustomerCache("maximumSize=10", meterRegistry);
+
+    @Test
+    public void loadsOnlyOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+        customerCache.get("1", id -> {
+            loads.incrementAndGet();
+            return Optional.of(customer(id, "FIRST_NAME1", 1L));
+        });
+        Optional<Customer> cached = customerCache.get("1", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        assertThat(loads).hasValue(1);
+        assertThat(cached).map(Customer::getFirstName).contains("FIRST_NAME1");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CustomerCache.NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void handsOutCopies() {
+        customerCache.put(customer("1", "FIRST_NAME1", 1L));
+        customerCache.get("1", id -> Optional.empty()).get().setFirstName("CHANGED");
+        assertThat(customerCache.get("1", id -> Optional.empty())).map(Customer::getFirstName).contains("FIRST_NAME1");
+    }
+
+    @Test
+    public void keepsNewerRevision() {
+        customerCache.put(customer("1", "FIRST_NAME2", 2L));
+        customerCache.put(customer("1", "FIRST_NAME1", 1L));
+        assertThat(customerCache.get("1", id -> Optional.empty())).map(Customer::getRevision).contains(2L);
+    }
+
+    @Test
+    public void evicts() {
+        customerCache.put(customer("1", "FIRST_NAME1", 1L));
+        customerCache.evict("1");
+        assertThat(customerCache.get("1", id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    public void doesNotStoreReloadRacingAnEviction() {
+        customerCache.put(customer("1", "FIRST_NAME1", 1L));
+        customerCache.evict("1");
+        Optional<Customer> stale = customerCache.get("1", id -> {
+            // an update commits, and evicts, while the old row is being read
+            customerCache.evict(id);
+            return Optional.of(customer(id, "FIRST_NAME1", 1L));
+        });
+        assertThat(stale).isPresent();
+
+        Optional<Customer> reloaded = customerCache.get("1", id -> Optional.of(customer(id, "FIRST_NAME2", 2L)));
+        assertThat(reloaded).map(Customer::getFirstName).contains("FIRST_NAME2");
+    }
+
+    private static Customer customer(String id, String firstName, Long revision) {
+        Customer customer = Customer.builder().id(id).salutation("Mr.").firstName(firstName).lastName("LAST_NAME1").dateOfBirth(LocalDate.now()).build();
+        customer.setRevision(revision);
+        return customer;
+    }
+}
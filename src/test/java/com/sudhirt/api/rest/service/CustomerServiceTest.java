@@ -1,23 +1,38 @@
 package com.sudhirt.api.rest.service;
 
+import com.sudhirt.api.rest.dto.BulkItemResult;
+import com.sudhirt.api.rest.dto.CustomerDetails;
+import com.sudhirt.api.rest.dto.CustomerView;
 import com.sudhirt.api.rest.entity.Customer;
 import com.sudhirt.api.rest.exception.NotFoundException;
+import com.sudhirt.api.rest.metrics.QueryCountingStatementInspector;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
-import java.util.Date;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:sql/before.sql")
 @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:sql/after.sql")
 public class CustomerServiceTest {
@@ -25,10 +40,56 @@ public class CustomerServiceTest {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     public void getCustomers() {
-        Collection<Customer> customerList = customerService.getAll();
-        assertThat(customerList).hasSize(20);
+        Slice<CustomerView> customers = customerService.getPage(null, Pageable.unpaged());
+        assertThat(customers.getContent()).hasSize(20);
+        assertThat(customers.hasNext()).isFalse();
+    }
+
+    @Test
+    public void getCustomersPage() {
+        Slice<CustomerView> firstPage = customerService.getPage(null, PageRequest.of(0, 10));
+        assertThat(firstPage.getContent()).hasSize(10);
+        assertThat(firstPage.hasNext()).isTrue();
+
+        Slice<CustomerView> lastPage = customerService.getPage(firstPage.getContent().get(9).getId(), PageRequest.of(0, 10));
+        assertThat(lastPage.getContent()).hasSize(10);
+        assertThat(lastPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void getCustomersPageWithAddresses() {
+        Slice<CustomerDetails> page = customerService.getPageWithAddresses(null, PageRequest.of(0, 20));
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getContent().get(0).getCustomer().getId()).isEqualTo("1");
+        assertThat(page.getContent().get(0).getAddresses()).hasSize(3);
+        assertThat(page.getContent().get(1).getAddresses()).isEmpty();
+    }
+
+    @Test
+    public void getCustomersPageWithAddressesRunsConstantNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        customerService.getPageWithAddresses(null, PageRequest.of(0, 2));
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        customerService.getPageWithAddresses(null, PageRequest.of(0, 20));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(smallPageStatements).isEqualTo(2);
+    }
+
+    @Test
+    public void streamCustomers() {
+        List<String> ids = new ArrayList<>();
+        customerService.streamAll(customer -> ids.add(customer.getId()));
+        assertThat(ids).hasSize(20).isSorted();
     }
 
     @Test
@@ -37,6 +98,31 @@ public class CustomerServiceTest {
         assertThat(customer).isNotNull();
     }
 
+    @Test
+    public void getCustomerByIdFromCache() {
+        Customer customer = customerService.getById("2");
+        QueryCountingStatementInspector.reset();
+        Customer cachedCustomer = customerService.getById("2");
+        assertThat(QueryCountingStatementInspector.count()).isZero();
+        assertThat(cachedCustomer).isEqualTo(customer).isNotSameAs(customer);
+    }
+
+    @Test
+    public void getCustomerByIdAfterUpdate() {
+        Customer customer = customerService.save(Customer.builder()
+                .firstName("FIRST_NAME1")
+                .lastName("LAST_NAME1")
+                .salutation("Mr.")
+                .dateOfBirth(LocalDate.now())
+                .build());
+        customer = customerService.getById(customer.getId());
+        customer.setFirstName("FirstName_Updated");
+        customerService.save(customer);
+        Customer dbCustomer = customerService.getById(customer.getId());
+        assertThat(dbCustomer.getFirstName()).isEqualTo("FirstName_Updated");
+        assertThat(dbCustomer.getRevision()).isEqualTo(1L);
+    }
+
     @Test
     public void getCustomerByInvalidId() {
         assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> customerService.getById("100"));
@@ -49,13 +135,84 @@ public class CustomerServiceTest {
                 .firstName("FIRST_NAME1")
                 .lastName("LAST_NAME1")
                 .salutation("Mr.")
-                .dateOfBirth(new Date())
+                .dateOfBirth(LocalDate.now())
                 .build();
         customerService.save(customer);
         Customer dbCustomer = customerService.getById(customer.getId());
         assertThat(dbCustomer).isEqualTo(customer);
     }
 
+    @Test
+    public void createCustomersInChunks() {
+        ReflectionTestUtils.setField(customerService, "bulkChunkSize", 2);
+        try {
+            List<Customer> customers = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                customers.add(Customer.builder().firstName("FIRST_NAME" + i).lastName("LAST_NAME").salutation("Mr.").dateOfBirth(LocalDate.now()).build());
+            }
+            customers.get(3).setLastName(null);
+
+            List<BulkItemResult> results = customerService.saveAll(customers.iterator());
+            assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(201, 201, 201, 400, 201);
+            assertThat(results).extracting(BulkItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+            assertThat(customerService.getById(results.get(4).getId()).getFirstName()).isEqualTo("FIRST_NAME4");
+            assertThat(jdbcTemplate.queryForObject("select count(*) from customer", Integer.class)).isEqualTo(24);
+        } finally {
+            ReflectionTestUtils.setField(customerService, "bulkChunkSize", 500);
+        }
+    }
+
+    @Test
+    public void upsertCustomersInBulk() {
+        Customer renamed = Customer.builder().id("1").firstName("FIRST_NAME1_UPDATED").build();
+        Customer revisionWithoutId = Customer.builder().salutation("Mr.").firstName("FIRST_NAME").lastName("LAST_NAME").dateOfBirth(LocalDate.now()).build();
+        revisionWithoutId.setRevision(1L);
+        Customer unknown = Customer.builder().id("100").firstName("FIRST_NAME100").build();
+        Customer stale = Customer.builder().id("2").firstName("FIRST_NAME2_UPDATED").build();
+        stale.setRevision(5L);
+        Customer created = Customer.builder().salutation("Mr.").firstName("FIRST_NAME").lastName("LAST_NAME").dateOfBirth(LocalDate.now()).build();
+        Customer incomplete = Customer.builder().salutation("Mr.").firstName("FIRST_NAME").dateOfBirth(LocalDate.now()).build();
+        Customer blankUpdate = Customer.builder().id("3").lastName(" ").build();
+
+        List<BulkItemResult> results = customerService.saveAll(
+                Arrays.asList(renamed, revisionWithoutId, unknown, stale, created, incomplete, blankUpdate).iterator());
+        assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(200, 400, 404, 412, 201, 400, 400);
+        assertThat(results.get(5).getError()).isEqualTo("lastName must not be blank");
+
+        Customer customer = customerService.getById("1");
+        assertThat(customer.getFirstName()).isEqualTo("FIRST_NAME1_UPDATED");
+        assertThat(customer.getLastName()).isEqualTo("LAST_NAME1");
+        assertThat(customer.getDateOfBirth()).isNotNull();
+        assertThat(customer.getRevision()).isEqualTo(2L);
+        assertThat(customerService.getById("2").getFirstName()).isEqualTo("FIRST_NAME2");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from customer", Integer.class)).isEqualTo(21);
+    }
+
+    @Test
+    public void createCustomersWhenOneChunkFailsToFlush() {
+        ReflectionTestUtils.setField(customerService, "bulkChunkSize", 2);
+        // a row the validator accepts but the database rejects, which only surfaces on flush
+        jdbcTemplate.execute("alter table customer add constraint ck_rejected_last_name check (last_name <> 'REJECTED')");
+        try {
+            List<Customer> customers = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                customers.add(Customer.builder().firstName("FIRST_NAME" + i).lastName("LAST_NAME").salutation("Mr.").dateOfBirth(LocalDate.now()).build());
+            }
+            customers.get(2).setLastName("REJECTED");
+            customers.get(5).setLastName(String.join("", Collections.nCopies(300, "x")));
+
+            List<BulkItemResult> results = customerService.saveAll(customers.iterator());
+            assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(201, 201, 409, 409, 201, 400);
+            assertThat(results.get(2).getError()).isEqualTo(CustomerService.CHUNK_CONFLICT);
+            assertThat(results.get(3).getId()).isNull();
+            assertThat(results.get(5).getError()).isEqualTo("lastName size must be between 0 and 255");
+            assertThat(jdbcTemplate.queryForObject("select count(*) from customer", Integer.class)).isEqualTo(23);
+        } finally {
+            jdbcTemplate.execute("alter table customer drop constraint ck_rejected_last_name");
+            ReflectionTestUtils.setField(customerService, "bulkChunkSize", 500);
+        }
+    }
+
     @Test
     @Transactional
     public void updateCustomer() {
@@ -63,7 +220,7 @@ public class CustomerServiceTest {
                 .firstName("FIRST_NAME1")
                 .lastName("LAST_NAME1")
                 .salutation("Mr.")
-                .dateOfBirth(new Date())
+                .dateOfBirth(LocalDate.now())
                 .build();
         customer = customerService.save(customer);
         customer.setFirstName("FirstName_Updated");